@@ -0,0 +1,94 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Board operations on a fixed set of random solvable boards, one board per call in turn
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    private static final int BOARDS = 1024;
+
+    @Param({"3", "4", "5"})
+    public int n;
+
+    private int[][][] blocks;
+    private Object[] boards;
+    // equal to the boards but separate objects
+    private Object[] copies;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        List<int[][]> sample = Puzzles.randomBlocks(n, BOARDS, true, 42);
+        blocks = sample.toArray(new int[BOARDS][][]);
+        boards = new Object[BOARDS];
+        copies = new Object[BOARDS];
+        for (int i = 0; i < BOARDS; i++) {
+            boards[i] = Puzzles.board(blocks[i]);
+            copies[i] = Puzzles.board(blocks[i]);
+        }
+    }
+
+    private int next() {
+        next = (next + 1) & (BOARDS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Object construct() throws Throwable {
+        return (Object) Puzzles.NEW_BOARD.invokeExact((Object) blocks[next()]);
+    }
+
+    // the board caches its manhattan, so a fresh one is built every time; subtract construct for the sum alone
+    @Benchmark
+    public int constructAndManhattan() throws Throwable {
+        Object board = (Object) Puzzles.NEW_BOARD.invokeExact((Object) blocks[next()]);
+        return (int) Puzzles.MANHATTAN.invokeExact(board);
+    }
+
+    @Benchmark
+    public void neighbors(Blackhole blackhole) throws Throwable {
+        Iterable<?> neighbors = (Iterable<?>) (Object) Puzzles.NEIGHBORS.invokeExact(boards[next()]);
+        for (Object neighbor : neighbors) {
+            blackhole.consume(neighbor);
+        }
+    }
+
+    @Benchmark
+    public boolean equalsEqual() {
+        int i = next();
+        return boards[i].equals(copies[i]);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        int i = next();
+        return boards[i].equals(copies[(i + 1) & (BOARDS - 1)]);
+    }
+
+    @Benchmark
+    public Object twin() throws Throwable {
+        return (Object) Puzzles.TWIN.invokeExact(boards[next()]);
+    }
+}
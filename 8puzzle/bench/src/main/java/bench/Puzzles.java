@@ -0,0 +1,195 @@
+package bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Access to the puzzle classes and the fixed instance sets of the benchmarks. JMH needs the benchmarks
+ * in a named package, and the puzzle classes live in the default one, which can't be imported; so they are
+ * reached through constant method handles instead, which the JIT inlines like direct calls.
+ */
+final class Puzzles {
+
+    private static final Class<?> BOARD = type("Board");
+    private static final Class<?> SOLVER = type("Solver");
+    private static final Class<?> OPTIONS = type("SolverOptions");
+
+    // Board(int[][])
+    static final MethodHandle NEW_BOARD = constructor(BOARD, int[][].class);
+    static final MethodHandle NEIGHBORS = method(BOARD, "neighbors", Iterable.class);
+    static final MethodHandle MANHATTAN = method(BOARD, "manhattan", int.class);
+    static final MethodHandle TWIN = method(BOARD, "twin", BOARD);
+    static final MethodHandle IS_SOLVABLE = method(BOARD, "isSolvable", boolean.class);
+    // Solver(Board, SolverOptions)
+    static final MethodHandle NEW_SOLVER = constructor(SOLVER, BOARD, OPTIONS);
+    static final MethodHandle MOVES = method(SOLVER, "moves", int.class);
+
+    private Puzzles() {
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // the constructor taking and returning Object in place of the puzzle classes, for invokeExact
+    private static MethodHandle constructor(Class<?> type, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class, parameters));
+            return handle.asType(handle.type().generic());
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // the method without parameters with the board or solver as an Object receiver, for invokeExact
+    private static MethodHandle method(Class<?> type, String name, Class<?> returnType) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(type, name, MethodType.methodType(returnType));
+            Class<?> result = returnType.isPrimitive() ? returnType : Object.class;
+            return handle.asType(MethodType.methodType(result, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static Object board(int[][] blocks) {
+        try {
+            return (Object) NEW_BOARD.invokeExact((Object) blocks);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean isSolvable(Object board) {
+        try {
+            return (boolean) IS_SOLVABLE.invokeExact(board);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // solver options for the algorithm named as in SolverOptions.Algorithm
+    static Object options(String algorithm) {
+        try {
+            Object options = OPTIONS.getConstructor().newInstance();
+            Class<?> algorithms = type("SolverOptions$Algorithm");
+            Object value = algorithms.getMethod("valueOf", String.class).invoke(null, algorithm);
+            OPTIONS.getMethod("algorithm", algorithms).invoke(options, value);
+            return options;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the goal blocks with the empty space last
+    static int[][] goal(int n) {
+        int[][] blocks = new int[n][n];
+        for (int k = 0; k < n * n - 1; k++) {
+            blocks[k / n][k % n] = k + 1;
+        }
+        return blocks;
+    }
+
+    // uniformly random permutations of the blocks, solvable or not as asked
+    static List<int[][]> randomBlocks(int n, int count, boolean solvable, long seed) {
+        Random random = new Random(seed);
+        List<int[][]> result = new ArrayList<>(count);
+
+        while (result.size() < count) {
+            int[] tiles = new int[n * n];
+            for (int k = 0; k < tiles.length; k++) {
+                int j = random.nextInt(k + 1);
+                tiles[k] = tiles[j];
+                tiles[j] = k;
+            }
+
+            int[][] blocks = new int[n][n];
+            for (int k = 0; k < tiles.length; k++) {
+                blocks[k / n][k % n] = tiles[k];
+            }
+            if (isSolvable(board(blocks)) == solvable) result.add(blocks);
+        }
+
+        return result;
+    }
+
+    // boards reached from the goal by random walks of the given length that never step straight back
+    static List<int[][]> randomWalkBlocks(int n, int count, int steps, long seed) {
+        Random random = new Random(seed);
+        List<int[][]> result = new ArrayList<>(count);
+
+        for (int c = 0; c < count; c++) {
+            int[][] blocks = goal(n);
+            int row = n - 1, col = n - 1, previous = -1;
+            for (int s = 0; s < steps; ) {
+                int direction = random.nextInt(4);
+                // the opposite of direction d is d ^ 1
+                if ((direction ^ 1) == previous) continue;
+
+                int r = row + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+                int k = col + (direction == 2 ? -1 : direction == 3 ? 1 : 0);
+                if (r < 0 || r >= n || k < 0 || k >= n) continue;
+
+                blocks[row][col] = blocks[r][k];
+                blocks[r][k] = 0;
+                row = r;
+                col = k;
+                previous = direction;
+                s++;
+            }
+            result.add(blocks);
+        }
+
+        return result;
+    }
+
+    // the puzzles of a file in the Solver input format, any number of them one after another
+    static List<int[][]> readBlocks(String file) throws IOException {
+        return parseBlocks(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.US_ASCII));
+    }
+
+    // the puzzles of a resource of this package in the same format
+    static List<int[][]> resourceBlocks(String name) throws IOException {
+        try (InputStream in = Puzzles.class.getResourceAsStream(name)) {
+            if (in == null) throw new FileNotFoundException("no resource " + name);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int count = in.read(buffer); count >= 0; count = in.read(buffer)) {
+                bytes.write(buffer, 0, count);
+            }
+            return parseBlocks(new String(bytes.toByteArray(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static List<int[][]> parseBlocks(String text) {
+        String[] tokens = text.trim().split("\\s+");
+        List<int[][]> result = new ArrayList<>();
+
+        for (int t = 0; t < tokens.length; ) {
+            int n = Integer.parseInt(tokens[t++]);
+            int[][] blocks = new int[n][n];
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    blocks[i][j] = Integer.parseInt(tokens[t++]);
+            result.add(blocks);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+package bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full solves of a fixed instance set, all of it per call:
+ * random3x3 - 100 uniformly random solvable 3x3 boards,
+ * walk4x4 - 20 4x4 boards 40 random steps away from the goal,
+ * unsolvable - 50 random unsolvable boards each of 3x3 and 4x4,
+ * korf100 - Korf's 100 15-puzzle instances (1985), 5305 moves in all, bundled as bench/korf100.txt,
+ * file - the puzzles of the korfFile parameter.
+ * Korf's goal has the blank first, so the bundled boards are turned by 180 degrees with every tile t
+ * renumbered 16 - t, which keeps their solutions and puts the blank last as in Board. They take minutes
+ * even with IDA_STAR, so korf100 is left out of the defaults: -p instances=korf100 -p algorithm=IDA_STAR.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"random3x3", "walk4x4", "unsolvable"})
+    public String instances;
+
+    @Param({"ASTAR", "IDA_STAR"})
+    public String algorithm;
+
+    // the puzzles of the "file" instances
+    @Param("")
+    public String korfFile;
+
+    private Object[] boards;
+    private Object options;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<int[][]> blocks;
+        switch (instances) {
+            case "random3x3":
+                blocks = Puzzles.randomBlocks(3, 100, true, 1);
+                break;
+            case "walk4x4":
+                blocks = Puzzles.randomWalkBlocks(4, 20, 40, 2);
+                break;
+            case "unsolvable":
+                blocks = Puzzles.randomBlocks(3, 50, false, 3);
+                blocks.addAll(Puzzles.randomBlocks(4, 50, false, 4));
+                break;
+            case "korf100":
+                blocks = Puzzles.resourceBlocks("korf100.txt");
+                break;
+            case "file":
+                if (korfFile.isEmpty()) throw new IllegalArgumentException("-p korfFile=<file> is needed");
+                blocks = Puzzles.readBlocks(korfFile);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown instances " + instances);
+        }
+
+        boards = new Object[blocks.size()];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = Puzzles.board(blocks.get(i));
+        }
+        options = Puzzles.options(algorithm);
+    }
+
+    // total moves of all the solutions, so no solve can be dropped
+    @Benchmark
+    public int solve() throws Throwable {
+        int result = 0;
+        for (Object board : boards) {
+            Object solver = (Object) Puzzles.NEW_SOLVER.invokeExact(board, options);
+            result += (int) Puzzles.MOVES.invokeExact(solver);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Solves many puzzles in one JVM on a work-stealing pool and prints the results in the input order
+ * with the time of every solve. Each input holds any number of puzzles one after another, as text or binary;
+ * the heuristic tables are set up once per dimension and shared by all the solves. With -cache the solves
+ * also share the exact distances of up to that many boards of the solutions found so far; -stats adds
+ * the counters of every solve. -weight, -nodes and -millis go to SolverOptions weight(), nodeLimit() and timeLimit(),
+ * -megabytes to memoryLimit().
+ * With -table the boards of its dimension are solved by the DistanceTable saved in the file.
+ *
+ * Usage: java BatchSolver [-threads k] [-algorithm name] [-heuristic name] [-cache boards] [-stats]
+ * [-weight w] [-nodes limit] [-millis limit] [-megabytes limit] [-table file] file...
+ * ("-" is standard input)
+ */
+public class BatchSolver {
+
+    private final SolverOptions.Algorithm algorithm;
+    private final String heuristicName;
+    // shared by all the solves; null if there is none
+    private final DistanceCache distanceCache;
+    private boolean collectStats = false;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    // the weight, budget and distance table of every solve
+    private final SolverOptions limits = new SolverOptions();
+    // heuristic for every dimension met so far
+    private final ConcurrentHashMap<Integer, Heuristic> heuristics = new ConcurrentHashMap<>();
+
+    public BatchSolver(SolverOptions.Algorithm algorithm, String heuristicName, DistanceCache distanceCache) {
+        this.algorithm = algorithm;
+        this.heuristicName = heuristicName;
+        this.distanceCache = distanceCache;
+    }
+
+    // result of one puzzle of the batch
+    private static class Result {
+        private final String name;
+        private final int moves;
+        private final long nanos;
+        // null unless collected
+        private final SolverStats stats;
+        private final double bound;
+
+        public Result(String name, int moves, long nanos, SolverStats stats, double bound) {
+            this.name = name;
+            this.moves = moves;
+            this.nanos = nanos;
+            this.stats = stats;
+            this.bound = bound;
+        }
+
+        @Override
+        public String toString() {
+            String outcome = bound == Double.POSITIVE_INFINITY ? "out of budget"
+                    : moves < 0 ? "unsolvable"
+                    : bound > 1 ? String.format("%d moves, at most %.3f times the shortest", moves, bound)
+                    : moves + " moves";
+            String result = String.format("%s: %s, %.3f ms", name, outcome, nanos / 1e6);
+            return stats == null ? result : result + " (" + stats + ")";
+        }
+    }
+
+    private Heuristic heuristic(int n) {
+        return heuristics.computeIfAbsent(n, dimension -> {
+            try {
+                return Solver.heuristic(heuristicName, dimension);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // threads of the solves
+    int threads() {
+        return threads;
+    }
+
+    boolean collectStats() {
+        return collectStats;
+    }
+
+    // options of a solve of the board, with the shared heuristic of its dimension
+    SolverOptions options(Board board) {
+        SolverOptions options = new SolverOptions().algorithm(algorithm).heuristic(heuristic(board.dimension()));
+        if (distanceCache != null) options.distanceCache(distanceCache);
+        options.collectStats(collectStats);
+        options.weight(limits.weight()).nodeLimit(limits.nodeLimit()).timeLimit(limits.timeLimit())
+                .memoryLimit(limits.memoryLimit());
+        if (limits.distanceTable() != null) options.distanceTable(limits.distanceTable());
+        return options;
+    }
+
+    private Result solve(String name, Board board) {
+        long start = System.nanoTime();
+        Solver solver = new Solver(board, options(board));
+        return new Result(name, solver.moves(), System.nanoTime() - start, collectStats ? solver.stats() : null,
+                solver.suboptimalityBound());
+    }
+
+    // reads all the puzzles of the input, text or binary, see PuzzleReader
+    private static void read(String input, List<String> names, List<Board> boards) throws IOException {
+        try (PuzzleReader reader = PuzzleReader.open(input)) {
+            for (int k = 1; reader.hasNext(); k++) {
+                names.add(input + "#" + k);
+                boards.add(reader.next());
+            }
+        }
+    }
+
+    // the batch of the options among the arguments, see the usage; the other arguments are added to rest
+    static BatchSolver parse(String[] args, List<String> rest) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        SolverOptions.Algorithm algorithm = SolverOptions.Algorithm.IDA_STAR;
+        String heuristicName = "manhattan";
+        DistanceCache distanceCache = null;
+        boolean collectStats = false;
+        SolverOptions limits = new SolverOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-algorithm")) {
+                algorithm = SolverOptions.Algorithm.valueOf(args[++i].toUpperCase());
+            } else if (args[i].equals("-heuristic")) {
+                heuristicName = args[++i];
+            } else if (args[i].equals("-cache")) {
+                distanceCache = new DistanceCache(Integer.parseInt(args[++i]));
+            } else if (args[i].equals("-stats")) {
+                collectStats = true;
+            } else if (args[i].equals("-weight")) {
+                limits.weight(Double.parseDouble(args[++i]));
+            } else if (args[i].equals("-nodes")) {
+                limits.nodeLimit(Long.parseLong(args[++i]));
+            } else if (args[i].equals("-millis")) {
+                limits.timeLimit(Long.parseLong(args[++i]));
+            } else if (args[i].equals("-megabytes")) {
+                limits.memoryLimit(Long.parseLong(args[++i]) << 20);
+            } else if (args[i].equals("-table")) {
+                limits.distanceTable(DistanceTable.load(java.nio.file.Paths.get(args[++i])));
+            } else {
+                rest.add(args[i]);
+            }
+        }
+
+        BatchSolver batch = new BatchSolver(algorithm, heuristicName, distanceCache);
+        batch.collectStats = collectStats;
+        batch.threads = threads;
+        batch.limits.weight(limits.weight()).nodeLimit(limits.nodeLimit()).timeLimit(limits.timeLimit())
+                .memoryLimit(limits.memoryLimit());
+        if (limits.distanceTable() != null) batch.limits.distanceTable(limits.distanceTable());
+        return batch;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> inputs = new ArrayList<>();
+        BatchSolver batch = parse(args, inputs);
+        int threads = batch.threads;
+
+        List<String> names = new ArrayList<>();
+        List<Board> boards = new ArrayList<>();
+        for (String input : inputs) {
+            read(input, names, boards);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+
+        List<ForkJoinTask<Result>> results = new ArrayList<>(boards.size());
+        for (int i = 0; i < boards.size(); i++) {
+            String name = names.get(i);
+            Board board = boards.get(i);
+            results.add(pool.submit(() -> batch.solve(name, board)));
+        }
+
+        // waiting for the results in the input order
+        for (ForkJoinTask<Result> result : results) {
+            StdOut.println(result.join());
+        }
+        pool.shutdown();
+
+        StdOut.printf("%d puzzles on %d threads in %.3f ms%n", boards.size(), threads,
+                (System.nanoTime() - start) / 1e6);
+    }
+}
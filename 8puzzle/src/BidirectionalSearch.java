@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+
+import edu.princeton.cs.algs4.MinPQ;
+
+/**
+ * Bidirectional A*: one search goes from the initial board to the goal board and the other one back,
+ * each guided by its own estimate of the distance to the opposite end. Every generated board is looked up
+ * among the boards of the other direction to find the shortest connection; the search stops once
+ * no open node of either direction can lead to a shorter one, so the solution stays optimal.
+ */
+class BidirectionalSearch {
+
+    private final Frontier forward;
+    private final Frontier backward;
+    // null unless the solve is counted
+    private final SolverStats stats;
+    // the nodes, time and memory of the options
+    private final SearchBudget budget;
+
+    // the shortest connection found so far, as its forward and backward halves
+    private int bestLength = Integer.MAX_VALUE;
+    private SearchNode forwardMeeting;
+    private SearchNode backwardMeeting;
+
+    // open nodes of one direction with the best node reached for every board
+    private static class Frontier {
+        private final Heuristic heuristic;
+        private final MinPQ<SearchNode> queue = new MinPQ<>();
+        private final ArrayList<SearchNode> nodes = new ArrayList<>();
+        // index in nodes of the best node of every board
+        private final StateTable bestNodes = new StateTable();
+        // open nodes dropped as their board has been reached with fewer moves
+        private long dropped = 0;
+
+        public Frontier(Heuristic heuristic) {
+            this.heuristic = heuristic;
+        }
+
+        // best node reached for the board; null if there is none
+        public SearchNode get(Board board) {
+            int index = bestNodes.get(board);
+            return index == StateTable.NOT_FOUND ? null : nodes.get(index);
+        }
+
+        public void add(SearchNode node) {
+            bestNodes.put(node.board, nodes.size());
+            nodes.add(node);
+            queue.insert(node);
+        }
+
+        // least priority among the open nodes; Integer.MAX_VALUE if there are none
+        public int minPriority() {
+            // dropping the nodes whose board has been reached with fewer moves since
+            while (!queue.isEmpty() && get(queue.min().board) != queue.min()) {
+                queue.delMin();
+                dropped++;
+            }
+
+            return queue.isEmpty() ? Integer.MAX_VALUE : queue.min().priority();
+        }
+    }
+
+    // manhattan distance to the fixed target board instead of the goal one
+    private static class TargetDistance implements Heuristic {
+        private final int n;
+        // index of every tile in the target
+        private final int[] targetIndex;
+
+        public TargetDistance(Board target) {
+            this.n = target.dimension();
+            this.targetIndex = new int[n * n];
+            for (int index = 0; index < n * n; index++) {
+                targetIndex[target.tileAt(index)] = index;
+            }
+        }
+
+        private int distance(int tile, int index) {
+            int target = targetIndex[tile];
+            return Math.abs(target / n - index / n) + Math.abs(target % n - index % n);
+        }
+
+        @Override
+        public int estimate(Board board) {
+            int result = 0;
+            for (int index = 0; index < n * n; index++) {
+                int tile = board.tileAt(index);
+                if (tile != 0) result += distance(tile, index);
+            }
+            return result;
+        }
+
+        @Override
+        public int update(Board board, int estimate, int tile, int from, int to) {
+            return estimate + distance(tile, to) - distance(tile, from);
+        }
+    }
+
+    public BidirectionalSearch(Board initial, SolverOptions options, SolverStats stats) {
+        Board goal = Board.goal(initial.dimension());
+        Heuristic heuristic = options.heuristic();
+        this.stats = stats;
+
+        forward = new Frontier(heuristic);
+        backward = new Frontier(new TargetDistance(initial));
+        long nodeBytes = SearchNode.BYTES + initial.bytes();
+        budget = new SearchBudget(options, stats, () -> (forward.nodes.size() + backward.nodes.size()) * nodeBytes
+                + forward.bestNodes.bytes() + backward.bestNodes.bytes());
+
+        forward.add(new SearchNode(initial, null, heuristic.estimate(initial)));
+        backward.add(new SearchNode(goal, null, backward.heuristic.estimate(goal)));
+        connect(forward.get(initial), backward.get(initial), true);
+        if (stats != null) stats.heuristicEvaluations += 2;
+    }
+
+    // blank indices of a shortest solution, from the initial board to the goal one;
+    // null if the budget runs out first
+    public int[] search() {
+        while (true) {
+            if (budget.isSpent()) return null;
+
+            // any connection through an open node is at least as long as its priority
+            int forwardMin = forward.minPriority(), backwardMin = backward.minPriority();
+            if (Math.max(forwardMin, backwardMin) >= bestLength) break;
+
+            // expanding the direction with the smaller open list
+            if (forward.queue.size() <= backward.queue.size()) {
+                expand(forward, backward, true);
+            } else {
+                expand(backward, forward, false);
+            }
+        }
+
+        if (stats != null) stats.duplicates += forward.dropped + backward.dropped;
+        return solution();
+    }
+
+    private void expand(Frontier frontier, Frontier opposite, boolean isForward) {
+        SearchNode node = frontier.queue.delMin();
+        if (stats != null) stats.expanded++;
+
+        for (Board neighborBoard : node.board.neighbors()) {
+            SearchNode best = frontier.get(neighborBoard);
+            boolean isDuplicate = best != null && best.movesCount <= node.movesCount + 1;
+            if (stats != null) {
+                stats.generated++;
+                if (isDuplicate) stats.duplicates++;
+                else stats.heuristicEvaluations++;
+            }
+            if (isDuplicate) continue;
+
+            int from = neighborBoard.blankIndex(), to = node.board.blankIndex();
+            int estimate = frontier.heuristic.update(neighborBoard, node.estimate, neighborBoard.tileAt(to), from, to);
+            SearchNode neighbor = new SearchNode(neighborBoard, node, estimate);
+            frontier.add(neighbor);
+
+            connect(neighbor, opposite.get(neighborBoard), isForward);
+        }
+
+        if (stats != null) stats.open(frontier.queue.size() + opposite.queue.size());
+    }
+
+    // keeps the connection through the two nodes of the same board if it is the shortest one
+    private void connect(SearchNode node, SearchNode oppositeNode, boolean isForward) {
+        if (oppositeNode == null || node.movesCount + oppositeNode.movesCount >= bestLength) return;
+
+        bestLength = node.movesCount + oppositeNode.movesCount;
+        forwardMeeting = isForward ? node : oppositeNode;
+        backwardMeeting = isForward ? oppositeNode : node;
+    }
+
+    private int[] solution() {
+        int[] result = new int[bestLength + 1];
+
+        int i = forwardMeeting.movesCount;
+        for (SearchNode node = forwardMeeting; node != null; node = node.previousNode) {
+            result[i--] = node.board.blankIndex();
+        }
+
+        i = forwardMeeting.movesCount;
+        for (SearchNode node = backwardMeeting.previousNode; node != null; node = node.previousNode) {
+            result[++i] = node.board.blankIndex();
+        }
+
+        return result;
+    }
+}
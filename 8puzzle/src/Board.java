@@ -4,9 +4,39 @@ import edu.princeton.cs.algs4.Queue;
  * Puzzle's board
  */
 public class Board {
-    // 1d array for the board to save the memory
+    // boards up to 4x4 are packed into a single long, 4 bits per tile
+    private static final int MAX_PACKED_DIMENSION = 4;
+    // packed goal boards by dimension
+    private static final long[] GOAL_PACKED = new long[MAX_PACKED_DIMENSION + 1];
+    // rough bytes of a board without its tiles: object header, packed, tiles reference and three ints
+    private static final int OBJECT_BYTES = 40;
+    // the tiles are chars, so no board is larger
+    private static final int MAX_DIMENSION = 256;
+    // goal layouts by dimension, made on the first use
+    private static final GoalLayout[] GOAL_LAYOUTS = new GoalLayout[MAX_DIMENSION + 1];
+    // k! for the ranks of the packed boards
+    private static final long[] FACTORIALS = new long[MAX_PACKED_DIMENSION * MAX_PACKED_DIMENSION + 1];
+
+    static {
+        FACTORIALS[0] = 1;
+        for (int k = 1; k < FACTORIALS.length; k++) {
+            FACTORIALS[k] = k * FACTORIALS[k - 1];
+        }
+
+        for (int d = 1; d <= MAX_PACKED_DIMENSION; d++) {
+            for (int k = 0; k < d * d - 1; k++) {
+                GOAL_PACKED[d] |= (long) (k + 1) << (k << 2);
+            }
+        }
+    }
+
+    // packed tiles for the small boards: the tile at index k occupies bits [4k, 4k + 4)
+    private long packed;
+    // 1d array for the larger boards to save the memory
     private char[] tiles;
     private int n = 0;
+    // index of the empty tile, -1 if there is none
+    private int blankIndex = -1;
     // cache for manhattan
     private int sumManhattanDistance = -1;
 
@@ -17,25 +47,108 @@ public class Board {
 
         this.n = blocks.length;
 
-        this.tiles = new char[n * n];
+        if (n > MAX_PACKED_DIMENSION) {
+            this.tiles = new char[n * n];
+        }
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < n; j++) {
                 setBlock(i, j, blocks[i][j]);
+                if (blocks[i][j] == 0) {
+                    blankIndex = getBlockIndex(i, j);
+                }
             }
         }
     }
 
+    // a board up to 4x4 of the packed tiles, see packedState(), for the readers that decode straight into them
+    Board(int n, long packed, int blankIndex) {
+        if (n > MAX_PACKED_DIMENSION) throw new java.lang.IllegalArgumentException("dimension " + n + " isn't packed");
+
+        this.n = n;
+        this.packed = packed;
+        this.blankIndex = blankIndex;
+    }
+
+    // a larger board of the tiles given row by row, which it takes over
+    Board(int n, char[] tiles, int blankIndex) {
+        if (n <= MAX_PACKED_DIMENSION) throw new java.lang.IllegalArgumentException("dimension " + n + " is packed");
+        if (tiles.length != n * n) throw new java.lang.IllegalArgumentException();
+
+        this.n = n;
+        this.tiles = tiles;
+        this.blankIndex = blankIndex;
+    }
+
+    // can the boards of dimension n be packed into a long?
+    static boolean isPacked(int n) {
+        return n <= MAX_PACKED_DIMENSION;
+    }
+
+    // the goal board of dimension n
+    static Board goal(int n) {
+        int[][] blocks = new int[n][n];
+        for (int k = 0; k < n * n - 1; k++) {
+            blocks[k / n][k % n] = k + 1;
+        }
+        return new Board(blocks);
+    }
+
+    // copy of the board
+    private Board(Board board) {
+        this.n = board.n;
+        this.packed = board.packed;
+        this.tiles = board.tiles == null ? null : board.tiles.clone();
+        this.blankIndex = board.blankIndex;
+        this.sumManhattanDistance = board.sumManhattanDistance;
+    }
+
     private int getBlockIndex(int i, int j) {
         return i * n + j;
     }
 
+    // block at the 1d index
+    int tileAt(int index) {
+        if (tiles == null) {
+            return (int) (packed >>> (index << 2)) & 0xF;
+        }
+        return tiles[index];
+    }
+
+    private void setTile(int index, int val) {
+        if (tiles == null) {
+            int shift = index << 2;
+            packed = (packed & ~(0xFL << shift)) | ((long) val << shift);
+        } else {
+            tiles[index] = (char) val;
+        }
+    }
 
     private int getBlock(int i, int j) {
-        return (int) tiles[getBlockIndex(i, j)];
+        return tileAt(getBlockIndex(i, j));
     }
 
     private void setBlock(int i, int j, int val) {
-        tiles[getBlockIndex(i, j)] = (char) val;
+        setTile(getBlockIndex(i, j), val);
+    }
+
+    // moves the tile at index into the empty space, in place;
+    // only the searches call it, on their own copies of the boards
+    void slide(int index) {
+        int tile = tileAt(index);
+
+        // only the moved tile changes its distance, so the cached manhattan is adjusted by its delta
+        if (sumManhattanDistance >= 0) {
+            sumManhattanDistance += getDistance(tile, blankIndex) - getDistance(tile, index);
+        }
+
+        if (tiles == null) {
+            // the empty nibble is zero, so the tile is cleared at index and shifted over to the blank
+            packed = (packed & ~(0xFL << (index << 2))) | ((long) tile << (blankIndex << 2));
+        } else {
+            tiles[blankIndex] = (char) tile;
+            tiles[index] = 0;
+        }
+        blankIndex = index;
     }
 
     // board dimension n
@@ -43,34 +156,87 @@ public class Board {
         return n;
     }
 
-    // calculates the correct row of the block
-    private int getCorrectRow(int block) {
-        if (block == 0) return n - 1;
+    // index of the empty tile, -1 if there is none
+    int blankIndex() {
+        return blankIndex;
+    }
 
-        return (block - 1) / n;
+    // a copy of the board that can be changed in place
+    Board copy() {
+        return new Board(this);
     }
 
-    // calculates the correct row of the block
-    private int getCorrectColumn(int block) {
-        if (block == 0) return n - 1;
+    // turns this packed board into the one of the packed tiles, in place; the searches keep their nodes
+    // as packed tiles and visit them through a single board
+    void load(long packedState, int blankIndex) {
+        if (tiles != null) throw new java.lang.UnsupportedOperationException("not a packed board");
 
-        return (block - 1) % n;
+        this.packed = packedState;
+        this.blankIndex = blankIndex;
+        this.sumManhattanDistance = -1;
+    }
+
+    // are the tiles packed into a single long?
+    boolean isPacked() {
+        return tiles == null;
+    }
+
+    // the packed tiles of a board up to 4x4, which identify it among the boards of its dimension
+    long packedState() {
+        return packed;
+    }
+
+    // where the tiles go on the goal board of a dimension, so that the heuristics don't divide for every tile
+    private static final class GoalLayout {
+        // row and column of every index
+        private final int[] rows;
+        private final int[] columns;
+        // goal row and column of every tile, the blank's in the last cell
+        private final int[] goalRows;
+        private final int[] goalColumns;
+        // the goal board row by row
+        private final char[] tiles;
+
+        private GoalLayout(int n) {
+            rows = new int[n * n];
+            columns = new int[n * n];
+            goalRows = new int[n * n];
+            goalColumns = new int[n * n];
+            tiles = new char[n * n];
+            for (int k = 0; k < n * n; k++) {
+                rows[k] = k / n;
+                columns[k] = k % n;
+                tiles[k] = (char) ((k + 1) % (n * n));
+                goalRows[tiles[k]] = k / n;
+                goalColumns[tiles[k]] = k % n;
+            }
+        }
+    }
+
+    private static GoalLayout layout(int n) {
+        GoalLayout result = GOAL_LAYOUTS[n];
+        if (result == null) {
+            // the threads that race here make equal layouts, any of them will do
+            result = new GoalLayout(n);
+            GOAL_LAYOUTS[n] = result;
+        }
+        return result;
+    }
+
+    // manhattan distance of the block placed at index to its correct position
+    private int getDistance(int block, int index) {
+        GoalLayout goal = layout(n);
+        return Math.abs(goal.goalRows[block] - goal.rows[index]) + Math.abs(goal.goalColumns[block] - goal.columns[index]);
     }
 
     // number of blocks out of place
     public int hamming() {
         int result = 0;
 
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                int val = getBlock(i, j);
-
-                if (val == 0) continue;
-
-                int row = getCorrectRow(val), col = getCorrectColumn(val);
-                if (i != row || j != col) {
-                    result++;
-                }
+        for (int k = 0; k < n * n; k++) {
+            int val = tileAt(k);
+            if (val != 0 && val != k + 1) {
+                result++;
             }
         }
 
@@ -82,17 +248,28 @@ public class Board {
 
         // calculating for the first time
         if (sumManhattanDistance < 0) {
+            GoalLayout goal = layout(n);
+            int[] goalRows = goal.goalRows, goalColumns = goal.goalColumns;
             int result = 0;
 
-            for (int i = 0; i < n; i++) {
-                for (int j = 0; j < n; j++) {
-                    int val = getBlock(i, j);
+            if (tiles == null) {
+                for (int k = 0; k < n * n; k++) {
+                    int val = tileAt(k);
 
                     if (val == 0) continue;
 
-                    int row = getCorrectRow(val), col = getCorrectColumn(val);
-                    result += Math.abs(row - i) + Math.abs(col - j);
+                    result += Math.abs(goalRows[val] - goal.rows[k]) + Math.abs(goalColumns[val] - goal.columns[k]);
                 }
+            } else {
+                // straight over the chars, row by row; the blank is counted as a tile like the others
+                // and taken off after the loop, which leaves the loop without a branch
+                for (int row = 0, k = 0; row < n; row++) {
+                    for (int column = 0; column < n; column++, k++) {
+                        int val = tiles[k];
+                        result += Math.abs(goalRows[val] - row) + Math.abs(goalColumns[val] - column);
+                    }
+                }
+                if (blankIndex >= 0) result -= getDistance(0, blankIndex);
             }
 
             sumManhattanDistance = result;
@@ -101,40 +278,91 @@ public class Board {
         return sumManhattanDistance;
     }
 
+    // rough bytes of the board on the heap, its tiles included
+    public long bytes() {
+        return tiles == null ? OBJECT_BYTES : OBJECT_BYTES + ((16 + 2L * tiles.length + 7) & ~7);
+    }
+
     // is this board the goal board?
     public boolean isGoal() {
-
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                int val = getBlock(i, j);
-                if (getCorrectRow(val) != i
-                        || getCorrectColumn(val) != j) {
-                    return false;
-                }
-            }
+        if (tiles == null) {
+            return packed == GOAL_PACKED[n];
         }
 
-        return true;
+        return java.util.Arrays.equals(tiles, layout(n).tiles);
     }
 
-    // returns new array of tiles where tiles [i1, j1] and [i2, j2] are swapped
-    private int[][] swap(int i1, int j1, int i2, int j2) {
-        int[][] result = new int[n][n];
+    // can the goal board be reached from this one?
+    public boolean isSolvable() {
+        if (blankIndex < 0) return false;
 
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                result[i][j] = getBlock(i, j);
+        // counting the inversions with a Fenwick tree over the block values, scanning from the end
+        int size = n * n;
+        int[] seen = new int[size];
+        long inversions = 0;
+        for (int k = size - 1; k >= 0; k--) {
+            int val = tileAt(k);
+            if (val == 0) continue;
+
+            for (int i = val - 1; i > 0; i -= i & -i) {
+                inversions += seen[i];
+            }
+            for (int i = val; i < size; i += i & -i) {
+                seen[i]++;
             }
         }
 
-        // swapping two tiles
-        int t = result[i2][j2];
-        result[i2][j2] = result[i1][j1];
-        result[i1][j1] = t;
+        // every move keeps the parity of the inversions for odd n; for even n a vertical move flips it
+        // together with the row of the blank, so their sum has to keep the odd parity of the goal board
+        if (n % 2 == 1) return inversions % 2 == 0;
 
+        return (inversions + blankIndex / n) % 2 == 1;
+    }
+
+    // Lehmer rank of the permutation of the tiles among all the (n^2)! ones, the blank being tile 0;
+    // for the boards up to 4x4
+    long rank() {
+        if (tiles != null) throw new java.lang.UnsupportedOperationException("not a packed board");
+
+        int size = n * n;
+        long result = 0;
+        int used = 0;
+        for (int k = 0; k < size; k++) {
+            int tile = tileAt(k);
+            // the tiles smaller than this one that are still to come
+            int smaller = tile - Integer.bitCount(used & ((1 << tile) - 1));
+            result += smaller * FACTORIALS[size - 1 - k];
+            used |= 1 << tile;
+        }
         return result;
     }
 
+    // the board of dimension n up to 4 with the Lehmer rank, see rank()
+    static Board unrank(int n, long rank) {
+        if (n < 1 || n > MAX_PACKED_DIMENSION) throw new java.lang.IllegalArgumentException("dimension " + n);
+        int size = n * n;
+        if (rank < 0 || rank >= FACTORIALS[size]) throw new java.lang.IllegalArgumentException("rank " + rank);
+
+        long packed = 0;
+        int used = 0, blankIndex = -1;
+        for (int k = 0; k < size; k++) {
+            long factorial = FACTORIALS[size - 1 - k];
+            int smaller = (int) (rank / factorial);
+            rank %= factorial;
+
+            // the unused tile with that many unused ones below it
+            int tile = 0;
+            while ((used & (1 << tile)) != 0 || smaller-- > 0) {
+                tile++;
+            }
+
+            packed |= (long) tile << (k << 2);
+            used |= 1 << tile;
+            if (tile == 0) blankIndex = k;
+        }
+        return new Board(n, packed, blankIndex);
+    }
+
     // a board that is obtained by exchanging any pair of blocks
     public Board twin() {
         // swapping the first two non-empty blocks
@@ -143,20 +371,26 @@ public class Board {
             i++;
         }
 
-        int[][] twinTiles = this.swap(i, j1, i, j2);
+        Board twinBoard = new Board(this);
+        twinBoard.setBlock(i, j1, getBlock(i, j2));
+        twinBoard.setBlock(i, j2, getBlock(i, j1));
+        twinBoard.sumManhattanDistance = -1;
 
-        return new Board(twinTiles);
+        return twinBoard;
     }
 
     // string representation of this board (in the output format specified below)
     public String toString() {
-        StringBuilder s = new StringBuilder();
-        s.append(n + "\n");
+        StringBuilder s = new StringBuilder(4 * n * n + n + 4);
+        s.append(n).append('\n');
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < n; j++) {
-                s.append(String.format("%2d ", getBlock(i, j)));
+                // the same as String.format("%2d ", block), without parsing the format for every block
+                int block = getBlock(i, j);
+                if (block < 10) s.append(' ');
+                s.append(block).append(' ');
             }
-            s.append("\n");
+            s.append('\n');
         }
         return s.toString();
     }
@@ -170,53 +404,51 @@ public class Board {
 
         if (this.dimension() != that.dimension()) return false;
 
-        for (int i = 0; i < n * n; i++) {
-            if (this.tiles[i] != that.tiles[i]) return false;
-        }
+        if (tiles == null) return this.packed == that.packed;
 
-        return true;
+        return java.util.Arrays.equals(this.tiles, that.tiles);
+    }
+
+    @Override
+    public int hashCode() {
+        if (tiles == null) return Long.hashCode(packed);
+
+        return java.util.Arrays.hashCode(tiles);
+    }
+
+    // the board with the tile at index slid into the empty space
+    Board neighbor(int index) {
+        Board result = new Board(this);
+        result.slide(index);
+        return result;
     }
 
     // all neighboring boards
     public Iterable<Board> neighbors() {
         Queue<Board> result = new Queue<>();
 
-        // looking for the empty tile
-        int zeroRow = -1, zeroCol = -1;
-        for (int i = 0; i < n; i++) {
-
-            if (zeroRow > 0 && zeroCol > 0) break;
+        if (blankIndex < 0) return result;
 
-            for (int j = 0; j < n; j++) {
-                if (getBlock(i, j) == 0) {
-                    zeroRow = i;
-                    zeroCol = j;
-                    break;
-                }
-            }
-        }
+        // the neighbours derive their manhattan from this one
+        manhattan();
 
-        if (zeroRow < 0 || zeroCol < 0) return result;
+        int zeroRow = blankIndex / n, zeroCol = blankIndex % n;
 
         // getting the neighbours
         if (zeroRow > 0) {
-            int[][] neighbour = this.swap(zeroRow, zeroCol, zeroRow - 1, zeroCol);
-            result.enqueue(new Board(neighbour));
+            result.enqueue(neighbor(blankIndex - n));
         }
 
         if (zeroRow < n - 1) {
-            int[][] neighbour = this.swap(zeroRow, zeroCol, zeroRow + 1, zeroCol);
-            result.enqueue(new Board(neighbour));
+            result.enqueue(neighbor(blankIndex + n));
         }
 
         if (zeroCol > 0) {
-            int[][] neighbour = this.swap(zeroRow, zeroCol, zeroRow, zeroCol - 1);
-            result.enqueue(new Board(neighbour));
+            result.enqueue(neighbor(blankIndex - 1));
         }
 
         if (zeroCol < n - 1) {
-            int[][] neighbour = this.swap(zeroRow, zeroCol, zeroRow, zeroCol + 1);
-            result.enqueue(new Board(neighbour));
+            result.enqueue(neighbor(blankIndex + 1));
         }
 
         return result;
@@ -238,6 +470,8 @@ public class Board {
         System.out.println("manhattan (10): " + testBoard.manhattan());
         System.out.println("isGoal (false): " + testBoard.isGoal());
         System.out.println("isGoal (true): " + goalBoard.isGoal());
+        System.out.println("isSolvable (true): " + testBoard.isSolvable());
+        System.out.println("twin isSolvable (false): " + testBoard.twin().isSolvable());
 
         Board twinBoard = testBoard.twin();
         System.out.println("twin:");
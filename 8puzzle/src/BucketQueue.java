@@ -0,0 +1,77 @@
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue of int items, such as node indices, for small non-negative integer priorities like
+ * moves count plus estimate: a stack of items for every priority, so the equal ones come out last in, first out.
+ * Insert takes constant time, delete the minimum too, apart from stepping over the emptied priorities.
+ */
+public class BucketQueue {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // items by priority
+    private int[][] buckets = new int[INITIAL_CAPACITY][];
+    private int[] sizes = new int[INITIAL_CAPACITY];
+    // no item has a smaller priority
+    private int minPriority = INITIAL_CAPACITY;
+    private int size = 0;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // number of items in the queue
+    public int size() {
+        return size;
+    }
+
+    // rough bytes of the queue on the heap
+    public long bytes() {
+        long result = 8L * buckets.length;
+        for (int[] bucket : buckets) {
+            if (bucket != null) result += 16 + 4L * bucket.length;
+        }
+        return result;
+    }
+
+    public void insert(int item, int priority) {
+        if (priority < 0) throw new java.lang.IllegalArgumentException("negative priority " + priority);
+
+        if (priority >= buckets.length) {
+            int capacity = Math.max(2 * buckets.length, priority + 1);
+            buckets = java.util.Arrays.copyOf(buckets, capacity);
+            sizes = java.util.Arrays.copyOf(sizes, capacity);
+        }
+
+        int[] bucket = buckets[priority];
+        if (bucket == null) {
+            bucket = new int[16];
+            buckets[priority] = bucket;
+        } else if (sizes[priority] == bucket.length) {
+            bucket = java.util.Arrays.copyOf(bucket, 2 * bucket.length);
+            buckets[priority] = bucket;
+        }
+
+        bucket[sizes[priority]++] = item;
+        size++;
+        if (priority < minPriority) minPriority = priority;
+    }
+
+    // least priority in the queue
+    public int minPriority() {
+        if (isEmpty()) throw new NoSuchElementException("Priority queue underflow");
+
+        while (sizes[minPriority] == 0) {
+            minPriority++;
+        }
+        return minPriority;
+    }
+
+    // removes an item with the least priority, the last inserted one among them
+    public int delMin() {
+        int priority = minPriority();
+
+        size--;
+        return buckets[priority][--sizes[priority]];
+    }
+}
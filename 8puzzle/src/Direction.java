@@ -0,0 +1,30 @@
+/**
+ * Direction in which the empty space moves on a step of a solution; the slid tile moves the opposite way
+ */
+public enum Direction {
+    UP, DOWN, LEFT, RIGHT;
+
+    // index the empty space moves to from the index on a board of dimension n
+    public int next(int index, int n) {
+        switch (this) {
+            case UP:
+                return index - n;
+            case DOWN:
+                return index + n;
+            case LEFT:
+                return index - 1;
+            default:
+                return index + 1;
+        }
+    }
+
+    // direction of the step of the empty space between the adjacent indices on a board of dimension n
+    public static Direction of(int from, int to, int n) {
+        if (to == from - n) return UP;
+        if (to == from + n) return DOWN;
+        if (to == from - 1 && from % n != 0) return LEFT;
+        if (to == from + 1 && to % n != 0) return RIGHT;
+
+        throw new java.lang.IllegalArgumentException("indices " + from + " and " + to + " aren't adjacent");
+    }
+}
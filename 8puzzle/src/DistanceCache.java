@@ -0,0 +1,165 @@
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded cache of exact distances to the goal, shared by the solves of a batch: every solution puts the boards
+ * on its way with their distances, and later solves take them as exact estimates or finish early once they reach
+ * one of them. Only the boards up to 4x4 are cached, by their packed tiles; the least recently referenced
+ * entries make room for the new ones (CLOCK). Safe for use by concurrent solvers: the lookups are optimistic
+ * reads that only take the lock if a put got in their way.
+ */
+public class DistanceCache {
+
+    // packed tiles of every entry; the packings of different dimensions never coincide
+    private final long[] keys;
+    private final byte[] distances;
+    // referenced since the clock hand passed the entry the last time
+    private final boolean[] referenced;
+    // entry of every cached state; sized for all the entries so that it never swaps its arrays under a lookup
+    private final StateTable entries;
+    private int size = 0;
+    private int hand = 0;
+
+    // written by the puts; the lookups validate against it
+    private final StampedLock lock = new StampedLock();
+
+    public DistanceCache(int capacity) {
+        if (capacity < 1) throw new java.lang.IllegalArgumentException();
+
+        keys = new long[capacity];
+        distances = new byte[capacity];
+        referenced = new boolean[capacity];
+        entries = new StateTable(capacity);
+    }
+
+    // number of cached boards
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // exact distance of the packed state to the goal; StateTable.NOT_FOUND if it isn't cached
+    public int get(long state) {
+        long stamp = lock.tryOptimisticRead();
+        int result = lookup(state);
+        if (lock.validate(stamp)) return result;
+
+        stamp = lock.readLock();
+        try {
+            return lookup(state);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // the same, to be validated if it runs without the lock: a torn read can only miss or find a wrong entry.
+    // The referenced flag is set without the lock, which at worst gives an entry a second chance too many or too few
+    private int lookup(long state) {
+        int entry = entries.get(state);
+        if (entry == StateTable.NOT_FOUND) return StateTable.NOT_FOUND;
+
+        referenced[entry] = true;
+        return distances[entry] & 0xFF;
+    }
+
+    // exact distance of the board to the goal; StateTable.NOT_FOUND if it isn't cached
+    public int get(Board board) {
+        return board.isPacked() ? get(board.packedState()) : StateTable.NOT_FOUND;
+    }
+
+    public void put(long state, int distance) {
+        if (distance < 0 || distance > 0xFF) throw new java.lang.IllegalArgumentException();
+
+        long stamp = lock.writeLock();
+        try {
+            insert(state, distance);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // puts the state while holding the write lock
+    private void insert(long state, int distance) {
+        int entry = entries.get(state);
+        if (entry == StateTable.NOT_FOUND) {
+            entry = size < keys.length ? size++ : evict();
+            keys[entry] = state;
+            entries.put(state, entry);
+        }
+
+        distances[entry] = (byte) distance;
+        referenced[entry] = true;
+    }
+
+    // frees the first entry the hand finds not referenced, giving a second chance to the referenced ones
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % keys.length;
+        }
+
+        int entry = hand;
+        entries.remove(keys[entry]);
+        hand = (hand + 1) % keys.length;
+        return entry;
+    }
+
+    // caches the boards of a shortest solution given by their blank indices, from the initial board to the goal
+    public void putSolution(Board initial, int[] blankIndices) {
+        if (!initial.isPacked()) return;
+
+        int moves = blankIndices.length - 1;
+        if (moves > 0xFF) throw new java.lang.IllegalArgumentException();
+
+        Board board = initial.copy();
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i <= moves; i++) {
+                if (i > 0) board.slide(blankIndices[i]);
+                insert(board.packedState(), moves - i);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // blank indices of a shortest solution from the cached board to the goal, found by stepping to a cached
+    // neighbour one move closer every time; null if the board isn't cached or some board on the way got evicted.
+    // Every step is looked up on its own, which is enough as the cached distances are exact
+    public int[] solution(Board initial) {
+        int distance = get(initial);
+        if (distance == StateTable.NOT_FOUND) return null;
+
+        int n = initial.dimension();
+        Board board = initial.copy();
+        int[] result = new int[distance + 1];
+        result[0] = board.blankIndex();
+
+        for (int i = 1; i <= distance; i++) {
+            int blank = board.blankIndex();
+            int next = -1;
+            if (blank >= n && closer(board, blank - n, distance - i)) next = blank - n;
+            else if (blank < n * n - n && closer(board, blank + n, distance - i)) next = blank + n;
+            else if (blank % n != 0 && closer(board, blank - 1, distance - i)) next = blank - 1;
+            else if (blank % n != n - 1 && closer(board, blank + 1, distance - i)) next = blank + 1;
+            if (next < 0) return null;
+
+            board.slide(next);
+            result[i] = next;
+        }
+
+        return result;
+    }
+
+    // is the neighbour with the tile at index moved cached at the distance?
+    private boolean closer(Board board, int index, int distance) {
+        int blank = board.blankIndex();
+        board.slide(index);
+        boolean result = get(board.packedState()) == distance;
+        board.slide(blank);
+        return result;
+    }
+}
@@ -0,0 +1,190 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact distance to the goal of every board of a small dimension, 3x3 or less: a byte for every permutation
+ * of the tiles by its Lehmer rank, 9! = 362880 bytes for 3x3, found by a breadth-first search from the goal.
+ * A saved table is memory-mapped when it is loaded. As a heuristic it is perfect, and a solution follows from it
+ * by stepping to a neighbour one move closer every time, without any search.
+ */
+public class DistanceTable implements Heuristic {
+
+    // "DTB1" at the start of the file, followed by n
+    private static final int MAGIC = 0x44544231;
+    private static final int HEADER_SIZE = 8;
+    // the ranks of the larger boards don't fit into an int
+    private static final int MAX_DIMENSION = 3;
+    // distance of the unsolvable boards
+    private static final byte UNREACHABLE = -1;
+
+    private final int n;
+    // distances by the rank of the board
+    private final ByteBuffer table;
+
+    private DistanceTable(int n, ByteBuffer table) {
+        this.n = n;
+        this.table = table;
+    }
+
+    // the table of the boards of dimension n
+    public static DistanceTable build(int n) {
+        if (n < 1 || n > MAX_DIMENSION) throw new java.lang.IllegalArgumentException("dimension " + n);
+
+        int size = n * n, states = 1;
+        for (int k = 2; k <= size; k++) {
+            states *= k;
+        }
+
+        ByteBuffer table = ByteBuffer.allocateDirect(states);
+        for (int i = 0; i < states; i++) {
+            table.put(i, UNREACHABLE);
+        }
+
+        // the ranks by their distance, level after level; only half of the boards are reachable
+        int[] queue = new int[states / 2 + 1];
+        int head = 0, tail = 0;
+        int goal = (int) Board.goal(n).rank();
+        table.put(goal, (byte) 0);
+        queue[tail++] = goal;
+
+        while (head < tail) {
+            int rank = queue[head++];
+            int depth = table.get(rank);
+            Board board = Board.unrank(n, rank);
+            int blank = board.blankIndex();
+
+            for (int direction = 0; direction < 4; direction++) {
+                int index = neighborIndex(blank, n, direction);
+                if (index < 0) continue;
+
+                board.slide(index);
+                int next = (int) board.rank();
+                if (table.get(next) == UNREACHABLE) {
+                    table.put(next, (byte) (depth + 1));
+                    queue[tail++] = next;
+                }
+                board.slide(blank);
+            }
+        }
+
+        return new DistanceTable(n, table);
+    }
+
+    // index of the tile next to the blank in the direction, 0 to 3 for up, down, left and right;
+    // -1 if there is none
+    private static int neighborIndex(int blank, int n, int direction) {
+        switch (direction) {
+            case 0:
+                return blank >= n ? blank - n : -1;
+            case 1:
+                return blank < n * n - n ? blank + n : -1;
+            case 2:
+                return blank % n != 0 ? blank - 1 : -1;
+            default:
+                return blank % n != n - 1 ? blank + 1 : -1;
+        }
+    }
+
+    public int dimension() {
+        return n;
+    }
+
+    // the least number of moves from the board to the goal; -1 if the board is unsolvable
+    public int distance(Board board) {
+        if (board.dimension() != n) throw new java.lang.IllegalArgumentException("not a board of dimension " + n);
+
+        int distance = table.get((int) board.rank());
+        return distance == UNREACHABLE ? -1 : distance & 0xFF;
+    }
+
+    // blank indices of a shortest solution, from the board to the goal, by the descent over the table;
+    // null if the board is unsolvable
+    public int[] solution(Board initial) {
+        int distance = distance(initial);
+        if (distance < 0) return null;
+
+        Board board = initial.copy();
+        int[] result = new int[distance + 1];
+        result[0] = board.blankIndex();
+
+        for (int i = 1; i <= distance; i++) {
+            int blank = board.blankIndex();
+            for (int direction = 0; direction < 4; direction++) {
+                int index = neighborIndex(blank, n, direction);
+                if (index < 0) continue;
+
+                board.slide(index);
+                if (table.get((int) board.rank()) == distance - i) break;
+                board.slide(blank);
+            }
+            result[i] = board.blankIndex();
+        }
+
+        return result;
+    }
+
+    @Override
+    public int estimate(Board board) {
+        return distance(board);
+    }
+
+    @Override
+    public int update(Board board, int estimate, int tile, int from, int to) {
+        return distance(board);
+    }
+
+    // writes the table to the file
+    public void save(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(n);
+        header.flip();
+
+        ByteBuffer distances = table.duplicate();
+        distances.clear();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) channel.write(header);
+            while (distances.hasRemaining()) channel.write(distances);
+        }
+    }
+
+    // maps the table saved in the file into memory
+    public static DistanceTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (channel.size() < HEADER_SIZE || mapped.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a distance table");
+            }
+
+            int n = mapped.getInt(4);
+            if (n < 1 || n > MAX_DIMENSION) throw new IOException(file + " has dimension " + n);
+
+            long states = 1;
+            for (int k = 2; k <= n * n; k++) {
+                states *= k;
+            }
+            if (channel.size() != HEADER_SIZE + states) throw new IOException(file + " is truncated");
+
+            mapped.position(HEADER_SIZE);
+            return new DistanceTable(n, mapped.slice());
+        }
+    }
+
+    // builds the table of dimension n, 3 by default, into the file, distances<n>.tbl by default
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : MAX_DIMENSION;
+        Path file = Paths.get(args.length > 1 ? args[1] : "distances" + n + ".tbl");
+
+        long start = System.currentTimeMillis();
+        DistanceTable table = build(n);
+        table.save(file);
+        System.out.println(file + ": " + table.table.capacity() + " boards in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * SolveRecorder of the JDKs with the flight recorder, which commits a SolveEvent per solve.
+ */
+class FlightSolveRecorder extends SolveRecorder {
+
+    @Override
+    Recording start() {
+        // the flight recorder takes a while to set up, so the event is made only once some recording has started it
+        if (!jdk.jfr.FlightRecorder.isInitialized()) return null;
+
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        return event;
+    }
+}
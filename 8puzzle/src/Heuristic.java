@@ -0,0 +1,12 @@
+/**
+ * Admissible estimate of the number of moves from a board to the goal board
+ */
+public interface Heuristic {
+
+    // estimate for the board
+    int estimate(Board board);
+
+    // estimate for the board that has been obtained from a board with the given estimate
+    // by sliding the tile at index 'from' into the empty space at index 'to'
+    int update(Board board, int estimate, int tile, int from, int to);
+}
@@ -0,0 +1,183 @@
+import java.util.Arrays;
+
+/**
+ * Iterative deepening A*: depth-first searches bounded by moves count plus estimate with a growing threshold.
+ * Moves are made and unmade on a single board, so the memory is linear in the solution depth.
+ * With a checkpoint file in the options its state is saved every so often and once the budget runs out
+ * or the search is interrupted, and a later search of the same board goes on from it.
+ */
+class IdaStarSearch {
+
+    // results of the depth-first search: the goal has been reached, the budget has run out,
+    // or there is no goal within the threshold
+    private static final int FOUND = -1;
+    private static final int OUT_OF_BUDGET = -2;
+    private static final int NOT_FOUND = 0;
+    // expansions between two looks at the clock for the next checkpoint
+    private static final int CHECKPOINT_CHECK_INTERVAL = 1 << 12;
+
+    private final Board initial;
+    // the board the moves are made on
+    private final Board board;
+    private final int n;
+    private final Heuristic heuristic;
+    // null unless the solve is counted
+    private final SolverStats stats;
+    // the nodes, time and memory of the options; the memory is that of the path
+    private final SearchBudget budget;
+    // null unless the options ask for checkpoints
+    private final SearchCheckpoint checkpoint;
+    private final long checkpointNanos;
+    private long nextCheckpoint;
+    private long expansions = 0;
+
+    // blank indices along the current path, path[0] is the blank of the initial board
+    private int[] path;
+    // moves count of the node being expanded
+    private int depth;
+    private int solutionDepth;
+    private int threshold;
+    // least priority above the threshold met in the current iteration
+    private int nextThreshold;
+    // moves count of the node a resumed search goes on from, 0 once it has been reached
+    private int resumeDepth = 0;
+
+    public IdaStarSearch(Board initial, SolverOptions options, SolverStats stats) {
+        this.initial = initial;
+        this.board = initial.copy();
+        this.n = initial.dimension();
+        this.heuristic = options.heuristic();
+        this.stats = stats;
+        this.budget = new SearchBudget(options, stats, () -> 4L * path.length);
+        this.checkpoint = options.checkpoint() == null ? null : new SearchCheckpoint(options.checkpoint());
+        this.checkpointNanos = java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(options.checkpointInterval());
+    }
+
+    // blank indices of a shortest solution, from the initial board to the goal one;
+    // null if the budget runs out first
+    public int[] search() {
+        int estimate = heuristic.estimate(board);
+        if (stats != null) stats.heuristicEvaluations++;
+        threshold = estimate;
+        nextThreshold = Integer.MAX_VALUE;
+        path = new int[threshold + 1];
+        path[0] = board.blankIndex();
+
+        if (checkpoint == null) return iterate(estimate);
+
+        // going on from the saved node of the saved iteration, if there is one
+        SearchCheckpoint.State state = checkpoint.load(initial);
+        if (state != null) {
+            threshold = state.threshold;
+            nextThreshold = state.nextThreshold;
+            path = Arrays.copyOf(state.path, Math.max(state.path.length, threshold + 1));
+            resumeDepth = state.path.length - 1;
+        }
+        nextCheckpoint = System.nanoTime() + checkpointNanos;
+
+        try {
+            int[] result = iterate(estimate);
+            if (result != null) {
+                checkpoint.delete();
+            } else {
+                checkpoint.save(initial, snapshot());
+            }
+            return result;
+        } catch (SolverAbortedException e) {
+            checkpoint.save(initial, snapshot());
+            throw e;
+        } finally {
+            checkpoint.close();
+        }
+    }
+
+    // runs the iterations with the growing threshold until the goal or the end of the budget
+    private int[] iterate(int estimate) {
+        while (true) {
+            int result = search(0, estimate, -1);
+            if (result == FOUND) {
+                return Arrays.copyOf(path, solutionDepth + 1);
+            }
+            if (result == OUT_OF_BUDGET) return null;
+
+            threshold = nextThreshold;
+            nextThreshold = Integer.MAX_VALUE;
+        }
+    }
+
+    private SearchCheckpoint.State snapshot() {
+        return new SearchCheckpoint.State(threshold, nextThreshold, Arrays.copyOf(path, depth + 1));
+    }
+
+    // returns FOUND, OUT_OF_BUDGET or NOT_FOUND, keeping the least priority above the threshold in nextThreshold
+    private int search(int movesCount, int estimate, int previousBlank) {
+        int priority = movesCount + estimate;
+        if (priority > threshold) {
+            nextThreshold = Math.min(nextThreshold, priority);
+            return NOT_FOUND;
+        }
+
+        if (board.isGoal()) {
+            solutionDepth = movesCount;
+            return FOUND;
+        }
+
+        if (movesCount + 1 == path.length) {
+            path = Arrays.copyOf(path, 2 * path.length);
+        }
+
+        int blank = board.blankIndex();
+        int row = blank / n, col = blank % n;
+        depth = movesCount;
+        if (budget.isSpent()) return OUT_OF_BUDGET;
+        if (checkpoint != null && ++expansions % CHECKPOINT_CHECK_INTERVAL == 0 && System.nanoTime() > nextCheckpoint) {
+            // skipped while the last one is still being written
+            if (checkpoint.saveLater(initial, snapshot())) nextCheckpoint = System.nanoTime() + checkpointNanos;
+        }
+        if (stats != null) {
+            stats.expanded++;
+            // the path is the open list of the depth-first search
+            stats.open(movesCount + 1);
+        }
+
+        // on the way back to the node of a checkpoint, the neighbours before the next one on its path
+        // have been searched already
+        int first = 0;
+        if (resumeDepth > 0) {
+            if (movesCount < resumeDepth) {
+                first = Direction.of(blank, path[movesCount + 1], n).ordinal();
+            } else {
+                resumeDepth = 0;
+            }
+        }
+
+        // the same order of the neighbours as in Board.neighbors()
+        for (int direction = first; direction < 4; direction++) {
+            int index;
+            if (direction == 0) index = row > 0 ? blank - n : -1;
+            else if (direction == 1) index = row < n - 1 ? blank + n : -1;
+            else if (direction == 2) index = col > 0 ? blank - 1 : -1;
+            else index = col < n - 1 ? blank + 1 : -1;
+
+            if (index < 0) continue;
+            if (stats != null) stats.generated++;
+            // undoing the previous move can't lead to a shorter solution
+            if (index == previousBlank) {
+                if (stats != null) stats.duplicates++;
+                continue;
+            }
+
+            board.slide(index);
+            if (stats != null) stats.heuristicEvaluations++;
+            path[movesCount + 1] = index;
+
+            int result = search(movesCount + 1, heuristic.update(board, estimate, board.tileAt(blank), index, blank),
+                    blank);
+            if (result != NOT_FOUND) return result;
+
+            board.slide(blank);
+        }
+
+        return NOT_FOUND;
+    }
+}
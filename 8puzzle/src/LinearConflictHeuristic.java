@@ -0,0 +1,86 @@
+/**
+ * Manhattan distance plus linear conflicts: two tiles in their goal row (column) in the reversed order
+ * mean that one of them has to leave the line and come back, which costs two extra moves
+ */
+public class LinearConflictHeuristic implements Heuristic {
+
+    // tails of the increasing runs of conflicts(), kept by every thread for itself: one heuristic is shared
+    // by the solves of a batch and by the workers of a parallel search
+    private final ThreadLocal<int[]> tails = ThreadLocal.withInitial(() -> new int[0]);
+
+    @Override
+    public int estimate(Board board) {
+        int n = board.dimension();
+        int[] tails = tails(n);
+
+        int result = board.manhattan();
+        for (int line = 0; line < n; line++) {
+            result += conflicts(board, line, false, -1, -1, tails) + conflicts(board, line, true, -1, -1, tails);
+        }
+
+        return result;
+    }
+
+    @Override
+    public int update(Board board, int estimate, int tile, int from, int to) {
+        int n = board.dimension();
+        int result = estimate + ManhattanHeuristic.distance(n, tile, to) - ManhattanHeuristic.distance(n, tile, from);
+
+        // the tile has passed the blank, which doesn't change the order of the tiles along the line it moved on,
+        // so only the two crossing lines it has left and entered are counted again; the previous board
+        // is read from this one with the tiles at 'from' and 'to' swapped back
+        boolean vertical = from / n != to / n;
+        int lineFrom = vertical ? from / n : from % n;
+        int lineTo = vertical ? to / n : to % n;
+
+        int[] tails = tails(n);
+        result += conflicts(board, lineFrom, !vertical, -1, -1, tails) + conflicts(board, lineTo, !vertical, -1, -1, tails);
+        result -= conflicts(board, lineFrom, !vertical, from, to, tails) + conflicts(board, lineTo, !vertical, from, to, tails);
+
+        return result;
+    }
+
+    // the tails of this thread for a line of n tiles
+    private int[] tails(int n) {
+        int[] result = tails.get();
+        if (result.length < n) {
+            result = new int[n];
+            tails.set(result);
+        }
+        return result;
+    }
+
+    // extra moves for the conflicts on a row (or a column), reading the tiles at indices a and b swapped
+    private static int conflicts(Board board, int line, boolean column, int a, int b, int[] tails) {
+        int n = board.dimension();
+
+        // the tiles that can stay on the line form the longest increasing run of goal positions,
+        // kept in tails by its smallest possible tails
+        int count = 0, length = 0;
+
+        for (int k = 0; k < n; k++) {
+            int index = column ? k * n + line : line * n + k;
+            if (index == a) index = b;
+            else if (index == b) index = a;
+
+            int tile = board.tileAt(index);
+            if (tile == 0) continue;
+
+            int goalLine = column ? (tile - 1) % n : (tile - 1) / n;
+            if (goalLine != line) continue;
+
+            int goalPosition = column ? (tile - 1) / n : (tile - 1) % n;
+            int lo = 0, hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (tails[mid] < goalPosition) lo = mid + 1;
+                else hi = mid;
+            }
+            tails[lo] = goalPosition;
+            if (lo == length) length++;
+            count++;
+        }
+
+        return 2 * (count - length);
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Sum of the Manhattan distances between blocks and their goal positions
+ */
+public class ManhattanHeuristic implements Heuristic {
+
+    @Override
+    public int estimate(Board board) {
+        return board.manhattan();
+    }
+
+    @Override
+    public int update(Board board, int estimate, int tile, int from, int to) {
+        // only the moved tile changes its distance
+        int n = board.dimension();
+        return estimate + distance(n, tile, to) - distance(n, tile, from);
+    }
+
+    // manhattan distance of the tile placed at index to its goal position
+    static int distance(int n, int tile, int index) {
+        return Math.abs((tile - 1) / n - index / n) + Math.abs((tile - 1) % n - index % n);
+    }
+}
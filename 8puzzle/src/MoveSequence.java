@@ -0,0 +1,77 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Steps of the empty space packed 2 bits each, 32 into a long, which replays into the boards of the solution
+ * only when they are asked for; the memory doesn't grow with the board dimension
+ */
+public class MoveSequence implements Iterable<Direction> {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final long[] words;
+    private final int length;
+
+    // the steps between the boards with the given blank indices, on a board of dimension n
+    public MoveSequence(int[] blankIndices, int n) {
+        this.length = blankIndices.length - 1;
+        this.words = new long[(length + 31) >>> 5];
+
+        for (int i = 0; i < length; i++) {
+            long direction = Direction.of(blankIndices[i], blankIndices[i + 1], n).ordinal();
+            words[i >>> 5] |= direction << ((i & 31) << 1);
+        }
+    }
+
+    // number of moves
+    public int length() {
+        return length;
+    }
+
+    // i-th step of the empty space
+    public Direction get(int i) {
+        if (i < 0 || i >= length) throw new java.lang.IndexOutOfBoundsException("move " + i);
+
+        return DIRECTIONS[(int) (words[i >>> 5] >>> ((i & 31) << 1)) & 3];
+    }
+
+    @Override
+    public Iterator<Direction> iterator() {
+        return new Iterator<Direction>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < length;
+            }
+
+            @Override
+            public Direction next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return get(i++);
+            }
+        };
+    }
+
+    // the initial board and every board after it, each one made when the iteration gets to it
+    public Iterable<Board> boards(Board initial) {
+        return () -> new Iterator<Board>() {
+            private Board board = null;
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i <= length;
+            }
+
+            @Override
+            public Board next() {
+                if (!hasNext()) throw new NoSuchElementException();
+
+                board = board == null ? initial : board.neighbor(get(i - 1).next(board.blankIndex(), initial.dimension()));
+                i++;
+                return board;
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.Arrays;
+
+/**
+ * Search nodes stored column by column in parallel primitive arrays instead of one object per node;
+ * a node is its index, the initial one is 0. The boards up to 4x4 are kept as their packed tiles,
+ * only the larger ones need a Board per node.
+ */
+class NodeArena {
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    // packed tiles of every node, for the boards up to 4x4
+    private long[] states;
+    // board of every node, for the larger boards only
+    private Board[] boards;
+    // blank index of every node, up to 256 x 256 boards
+    private char[] blanks;
+    // index of the node it has been reached from, -1 for the initial one
+    private int[] parents;
+    // moves count, which outgrows a short on the weighted searches of the large boards
+    private int[] moves;
+    // estimate of the moves left, which outgrows a short on the large boards
+    private int[] estimates;
+    private int size = 0;
+
+    public NodeArena(boolean isPacked) {
+        if (isPacked) {
+            states = new long[INITIAL_CAPACITY];
+        } else {
+            boards = new Board[INITIAL_CAPACITY];
+        }
+        blanks = new char[INITIAL_CAPACITY];
+        parents = new int[INITIAL_CAPACITY];
+        moves = new int[INITIAL_CAPACITY];
+        estimates = new int[INITIAL_CAPACITY];
+    }
+
+    // number of nodes
+    public int size() {
+        return size;
+    }
+
+    // adds the node of the board, a packed one or a Board of its own, and returns its index
+    public int add(long state, Board board, int blankIndex, int parent, int estimate) {
+        if (size == parents.length) grow();
+
+        if (states != null) {
+            states[size] = state;
+        } else {
+            boards[size] = board;
+        }
+        blanks[size] = (char) blankIndex;
+        parents[size] = parent;
+        moves[size] = parent < 0 ? 0 : moves[parent] + 1;
+        estimates[size] = estimate;
+
+        return size++;
+    }
+
+    private void grow() {
+        int capacity = 2 * parents.length;
+        if (states != null) {
+            states = Arrays.copyOf(states, capacity);
+        } else {
+            boards = Arrays.copyOf(boards, capacity);
+        }
+        blanks = Arrays.copyOf(blanks, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        moves = Arrays.copyOf(moves, capacity);
+        estimates = Arrays.copyOf(estimates, capacity);
+    }
+
+    // rough bytes of the nodes on the heap, the boards of the larger ones included
+    public long bytes() {
+        long capacity = parents.length;
+        if (states != null) return capacity * (8 + 2 + 4 + 4 + 4);
+
+        return capacity * (4 + 2 + 4 + 4 + 4) + (size == 0 ? 0 : size * boards[0].bytes());
+    }
+
+    public long state(int node) {
+        return states[node];
+    }
+
+    public Board board(int node) {
+        return boards[node];
+    }
+
+    public int blankIndex(int node) {
+        return blanks[node];
+    }
+
+    public int parent(int node) {
+        return parents[node];
+    }
+
+    public int movesCount(int node) {
+        return moves[node];
+    }
+
+    public int estimate(int node) {
+        return estimates[node];
+    }
+
+    public int priority(int node) {
+        return moves[node] + estimates[node];
+    }
+
+    // blank indices of the boards on the way from the initial node to this one
+    public int[] path(int node) {
+        int[] result = new int[moves[node] + 1];
+        for (int i = node; i >= 0; i = parents[i]) {
+            result[moves[i]] = blanks[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,300 @@
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.princeton.cs.algs4.MinPQ;
+
+/**
+ * Hash-distributed parallel A* (HDA*): every board is owned by the thread its hash points to, and only the owner
+ * keeps it in its open list and closed set. Generated nodes travel to their owners in batches through lock-free
+ * queues. A reached goal bounds the search from above; the threads go on until none of them has a node below
+ * the bound and no batch is in flight, so the best goal is an optimal one.
+ */
+class ParallelSearch {
+
+    // nodes sent to another thread at once
+    private static final int BATCH_SIZE = 64;
+    // expansions between the flushes of the partly filled batches
+    private static final int FLUSH_INTERVAL = 256;
+    // expansions a worker counts before it reports them to the budget
+    private static final int REPORT_INTERVAL = 16;
+    // longest park of an idle worker; it is woken up when a batch comes or the search ends, this is a safety net
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final Heuristic heuristic;
+    private final Worker[] workers;
+    // shared by the workers, which report their expansions and bytes every REPORT_INTERVAL expansions
+    private final SearchBudget budget;
+    // rough bytes of a node with its board
+    private final long nodeBytes;
+
+    // running workers plus batches in flight; nothing can happen any more once it drops to zero
+    private final AtomicLong work = new AtomicLong();
+
+    // the best goal reached so far
+    private volatile int bestLength = Integer.MAX_VALUE;
+    private SearchNode bestGoal;
+
+    private volatile Throwable failure;
+    private volatile boolean spent = false;
+
+    // null unless the solve is counted; every worker counts on its own and they are summed at the end
+    private final SolverStats stats;
+
+    public ParallelSearch(Board initial, SolverOptions options, SolverStats stats) {
+        this.heuristic = options.heuristic();
+        this.stats = stats;
+        this.workers = new Worker[options.threads()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i);
+        }
+        this.nodeBytes = SearchNode.BYTES + initial.bytes();
+        this.budget = new SearchBudget(options, stats, () -> {
+            long bytes = 0;
+            for (Worker worker : workers) {
+                bytes += worker.bytes;
+            }
+            return bytes;
+        });
+
+        SearchNode root = new SearchNode(initial, null, heuristic.estimate(initial));
+        workers[owner(initial)].receive(root);
+        if (stats != null) stats.heuristicEvaluations++;
+    }
+
+    // blank indices of a shortest solution, from the initial board to the goal one; null if the budget runs out first
+    public int[] search() {
+        work.set(workers.length);
+
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+
+        boolean interrupted = false;
+        for (Worker worker : workers) {
+            while (worker.thread.isAlive()) {
+                try {
+                    worker.thread.join();
+                } catch (InterruptedException e) {
+                    // the workers stop at their next step; they are waited for all the same to sum up their counters
+                    interrupted = true;
+                    failure = e;
+                    wakeAll();
+                }
+            }
+        }
+
+        if (stats != null) {
+            for (Worker worker : workers) {
+                stats.add(worker.stats);
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            if (stats != null) stats.endSearch();
+            throw new SolverAbortedException("interrupted", stats);
+        }
+        if (failure != null) throw new IllegalStateException("parallel search failed", failure);
+        if (spent) return null;
+
+        int[] result = new int[bestLength + 1];
+        for (SearchNode node = bestGoal; node != null; node = node.previousNode) {
+            result[node.movesCount] = node.board.blankIndex();
+        }
+        return result;
+    }
+
+    private int owner(Board board) {
+        // murmur3 finalizer, the packed boards hash their nibbles poorly
+        int h = board.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+
+        return (h & 0x7fffffff) % workers.length;
+    }
+
+    // wakes up the idle workers to see that the search is over
+    private void wakeAll() {
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    private synchronized void reachGoal(SearchNode node) {
+        if (node.movesCount < bestLength) {
+            bestGoal = node;
+            bestLength = node.movesCount;
+        }
+    }
+
+    // one thread of the search with the boards it owns
+    private class Worker implements Runnable {
+        private final int id;
+        private final Thread thread;
+        // parked until a batch comes
+        private volatile boolean idle = false;
+        // rough bytes of the boards of the worker as of its last report to the budget
+        private volatile long bytes = 0;
+        private MinPQ<SearchNode> open = new MinPQ<>();
+        // best moves count seen for every owned board
+        private final StateTable closedSet = new StateTable();
+        private final ConcurrentLinkedQueue<SearchNode[]> inbox = new ConcurrentLinkedQueue<>();
+        // nodes waiting to be sent to every other worker
+        private final ArrayList<ArrayList<SearchNode>> outbox = new ArrayList<>();
+        // counters of this worker; null unless the solve is counted
+        private final SolverStats stats;
+
+        public Worker(int id) {
+            this.id = id;
+            this.thread = new Thread(this, "hda-" + id);
+            this.stats = ParallelSearch.this.stats == null ? null : new SolverStats();
+            for (int i = 0; i < workers.length; i++) {
+                outbox.add(new ArrayList<SearchNode>(BATCH_SIZE));
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                int expanded = 0;
+                while (failure == null && !spent) {
+                    receiveAll();
+
+                    SearchNode node = next();
+                    if (node != null) {
+                        expand(node);
+                        if (++expanded % FLUSH_INTERVAL == 0) flush();
+                        if (expanded % REPORT_INTERVAL == 0) report();
+                        continue;
+                    }
+
+                    // idle until a batch comes, or done when there is nothing left anywhere
+                    flush();
+                    idle = true;
+                    if (work.decrementAndGet() == 0) wakeAll();
+                    while (inbox.isEmpty()) {
+                        if (work.get() == 0 || failure != null || spent) return;
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                    work.incrementAndGet();
+                }
+            } catch (Throwable e) {
+                failure = e;
+                wakeAll();
+            }
+        }
+
+        // hands the last expansions and the bytes of the worker to the budget; stops every worker once it is spent
+        private void report() {
+            bytes = closedSet.bytes() + closedSet.size() * nodeBytes;
+            if (budget.isSpent(REPORT_INTERVAL)) {
+                spent = true;
+                wakeAll();
+            }
+        }
+
+        // unparks the worker if it is waiting for a batch; the sender adds the batch first, so either the worker
+        // finds it before parking or the sender finds the worker idle
+        private void wake() {
+            if (idle) LockSupport.unpark(thread);
+        }
+
+        private void receiveAll() {
+            for (SearchNode[] batch = inbox.poll(); batch != null; batch = inbox.poll()) {
+                for (SearchNode node : batch) {
+                    receive(node);
+                }
+                // the batch is counted as work until its nodes are in the open list
+                work.decrementAndGet();
+            }
+        }
+
+        // takes an owned node unless its board has been reached with the same or fewer moves
+        public void receive(SearchNode node) {
+            if (node.priority() >= bestLength) return;
+
+            int bestMovesCount = closedSet.get(node.board);
+            if (bestMovesCount != StateTable.NOT_FOUND && bestMovesCount <= node.movesCount) {
+                if (stats != null) stats.duplicates++;
+                return;
+            }
+
+            closedSet.put(node.board, node.movesCount);
+            open.insert(node);
+            if (stats != null) stats.open(open.size());
+        }
+
+        // the open node with the least priority below the bound; null if there is none
+        private SearchNode next() {
+            while (!open.isEmpty()) {
+                SearchNode node = open.delMin();
+
+                if (node.priority() >= bestLength) {
+                    // the rest can't lead to a shorter solution either
+                    open = new MinPQ<>();
+                    return null;
+                }
+
+                // skipping the nodes whose board has been reached with fewer moves since they were enqueued
+                if (node.movesCount == closedSet.get(node.board)) return node;
+                if (stats != null) stats.duplicates++;
+            }
+
+            return null;
+        }
+
+        private void expand(SearchNode node) {
+            if (node.board.isGoal()) {
+                reachGoal(node);
+                return;
+            }
+
+            if (stats != null) stats.expanded++;
+
+            Board previousBoard = node.previousNode == null ? null : node.previousNode.board;
+            for (Board neighborBoard : node.board.neighbors()) {
+                if (stats != null) stats.generated++;
+                if (neighborBoard.equals(previousBoard)) {
+                    if (stats != null) stats.duplicates++;
+                    continue;
+                }
+
+                int from = neighborBoard.blankIndex(), to = node.board.blankIndex();
+                int estimate = heuristic.update(neighborBoard, node.estimate, neighborBoard.tileAt(to), from, to);
+                if (stats != null) stats.heuristicEvaluations++;
+                SearchNode neighbor = new SearchNode(neighborBoard, node, estimate);
+                if (neighbor.priority() >= bestLength) continue;
+
+                int owner = owner(neighborBoard);
+                if (owner == id) {
+                    receive(neighbor);
+                    continue;
+                }
+
+                ArrayList<SearchNode> batch = outbox.get(owner);
+                batch.add(neighbor);
+                if (batch.size() == BATCH_SIZE) send(owner);
+            }
+        }
+
+        private void send(int owner) {
+            ArrayList<SearchNode> batch = outbox.get(owner);
+            work.incrementAndGet();
+            workers[owner].inbox.add(batch.toArray(new SearchNode[batch.size()]));
+            workers[owner].wake();
+            batch.clear();
+        }
+
+        private void flush() {
+            for (int owner = 0; owner < workers.length; owner++) {
+                if (!outbox.get(owner).isEmpty()) send(owner);
+            }
+        }
+    }
+}
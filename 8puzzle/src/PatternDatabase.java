@@ -0,0 +1,347 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Pattern database: for every placement of a group of tiles, the least number of moves of those tiles
+ * that brings them to their goal positions, the other tiles being indistinguishable. Only the moves
+ * of the group's own tiles are counted, so the databases of disjoint groups add up to an admissible estimate.
+ * The distances are found by a breadth-first search backwards from the goal placement and kept one byte
+ * per placement; a saved database is memory-mapped when it is loaded.
+ */
+public class PatternDatabase {
+
+    // "PDB1" at the start of the file, followed by n, the group size and the tiles of the group
+    private static final int MAGIC = 0x50444231;
+    // the board cells are tracked by the bits of a long
+    private static final int MAX_DIMENSION = 8;
+    // the largest table of placements with the position of the blank that fits into an array
+    private static final long MAX_TRACKED_STATES = Integer.MAX_VALUE - 8;
+    private static final byte UNKNOWN = -1;
+
+    private final int n;
+    private final int[] pattern;
+    // index of the tile in the group, -1 for the tiles out of the group
+    private final int[] patternIndex;
+    // weight of the digit of every tile of the group in the rank, see rank()
+    private final int[] weights;
+    // distances by the rank of the placement
+    private final ByteBuffer table;
+
+    private PatternDatabase(int n, int[] pattern, ByteBuffer table) {
+        this.n = n;
+        this.pattern = pattern;
+        this.table = table;
+
+        this.patternIndex = new int[n * n];
+        Arrays.fill(patternIndex, -1);
+        for (int i = 0; i < pattern.length; i++) {
+            patternIndex[pattern[i]] = i;
+        }
+
+        this.weights = new int[pattern.length];
+        for (int i = pattern.length - 1, weight = 1; i >= 0; i--) {
+            weights[i] = weight;
+            weight *= n * n - i;
+        }
+    }
+
+    // the groups used by default: 6-6-3 for 4x4 and 5-5-5-5-4 for 5x5, small enough to track the blank
+    public static int[][] defaultPartition(int n) {
+        if (n == 4) {
+            return new int[][] { {1, 2, 5, 6, 9, 13}, {3, 4, 7, 8, 11, 12}, {10, 14, 15} };
+        }
+        if (n == 5) {
+            return new int[][] {
+                {1, 2, 3, 6, 7}, {4, 5, 8, 9, 10}, {11, 12, 16, 17, 21}, {13, 14, 15, 18, 19}, {20, 22, 23, 24}
+            };
+        }
+
+        throw new java.lang.IllegalArgumentException("no default partition for " + n + "x" + n);
+    }
+
+    // board dimension n
+    public int dimension() {
+        return n;
+    }
+
+    // is the tile in the group?
+    public boolean contains(int tile) {
+        return tile > 0 && tile < patternIndex.length && patternIndex[tile] >= 0;
+    }
+
+    // least number of moves of the group's tiles to their goal positions
+    public int distance(Board board) {
+        return distance(board, -1, -1);
+    }
+
+    // the same, reading the tiles at indices a and b of the board swapped
+    int distance(Board board, int a, int b) {
+        // the rank in one pass over the board, without the positions: the group's tiles met so far are
+        // the ones on the cells before, so the digit of a tile is its cell less those of them before it in the group
+        int rank = 0;
+        long seen = 0;
+        for (int index = 0; index < n * n; index++) {
+            int tile = board.tileAt(index == a ? b : index == b ? a : index);
+            if (tile == 0 || patternIndex[tile] < 0) continue;
+
+            int i = patternIndex[tile];
+            rank += (index - Long.bitCount(seen & ((1L << i) - 1))) * weights[i];
+            seen |= 1L << i;
+        }
+
+        return table.get(rank) & 0xFF;
+    }
+
+    // rank of the placement: the position of each tile among the cells left by the previous ones, in mixed radix
+    private int rank(int[] positions) {
+        int result = 0;
+        long used = 0;
+        for (int i = 0; i < positions.length; i++) {
+            int p = positions[i];
+            result = result * (n * n - i) + p - Long.bitCount(used & ((1L << p) - 1));
+            used |= 1L << p;
+        }
+        return result;
+    }
+
+    private static void unrank(int rank, int cells, int[] positions) {
+        int k = positions.length;
+        for (int i = k - 1; i >= 0; i--) {
+            positions[i] = rank % (cells - i);
+            rank /= cells - i;
+        }
+
+        long used = 0;
+        for (int i = 0; i < k; i++) {
+            // selecting the free cell with the given number
+            int p = 0;
+            for (int skip = positions[i]; ; p++) {
+                if ((used & (1L << p)) != 0) continue;
+                if (skip-- == 0) break;
+            }
+            positions[i] = p;
+            used |= 1L << p;
+        }
+    }
+
+    // builds the database of the group of tiles
+    public static PatternDatabase build(int n, int... tiles) {
+        if (n < 2 || n > MAX_DIMENSION) throw new java.lang.IllegalArgumentException("unsupported dimension " + n);
+        if (tiles == null) throw new java.lang.NullPointerException();
+
+        int cells = n * n;
+        long placements = 1;
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] <= 0 || tiles[i] >= cells) throw new java.lang.IllegalArgumentException("no tile " + tiles[i]);
+            placements *= cells - i;
+        }
+        if (placements > MAX_TRACKED_STATES) throw new java.lang.IllegalArgumentException("the group is too large");
+
+        PatternDatabase result = new PatternDatabase(n, tiles.clone(),
+                ByteBuffer.wrap(new byte[(int) placements]));
+
+        if (placements * cells <= MAX_TRACKED_STATES) {
+            result.searchWithBlank();
+        } else {
+            result.searchWithoutBlank();
+        }
+
+        return result;
+    }
+
+    // cells next to each cell
+    private long[] adjacentCells() {
+        long[] result = new long[n * n];
+        for (int c = 0; c < n * n; c++) {
+            int row = c / n, col = c % n;
+            if (row > 0) result[c] |= 1L << (c - n);
+            if (row < n - 1) result[c] |= 1L << (c + n);
+            if (col > 0) result[c] |= 1L << (c - 1);
+            if (col < n - 1) result[c] |= 1L << (c + 1);
+        }
+        return result;
+    }
+
+    // the cells the blank can walk to from the seed without moving any of the group's tiles
+    private static long region(int seed, long free, long[] adjacent) {
+        long result = 1L << seed, frontier = result;
+        while (frontier != 0) {
+            long next = 0;
+            for (long bits = frontier; bits != 0; bits &= bits - 1) {
+                next |= adjacent[Long.numberOfTrailingZeros(bits)];
+            }
+            frontier = next & free & ~result;
+            result |= frontier;
+        }
+        return result;
+    }
+
+    private int[] goalPositions() {
+        int[] result = new int[pattern.length];
+        for (int i = 0; i < pattern.length; i++) {
+            result[i] = pattern[i] - 1;
+        }
+        return result;
+    }
+
+    // breadth-first search over the placements together with the region of the blank (named by its lowest cell),
+    // where a move slides a tile of the group into an adjacent cell of the region
+    private void searchWithBlank() {
+        int cells = n * n, k = pattern.length;
+        long all = cells == 64 ? -1L : (1L << cells) - 1;
+        long[] adjacent = adjacentCells();
+
+        byte[] distances = new byte[table.capacity() * cells];
+        Arrays.fill(distances, UNKNOWN);
+
+        int[] positions = goalPositions();
+        long occupied = 0;
+        for (int p : positions) occupied |= 1L << p;
+        long goalRegion = region(cells - 1, all & ~occupied, adjacent);
+        distances[rank(positions) * cells + Long.numberOfTrailingZeros(goalRegion)] = 0;
+
+        // the levels are expanded by scanning the whole array, so no queue is kept
+        boolean found = true;
+        for (int depth = 0; found; depth++) {
+            found = false;
+            for (int state = 0; state < distances.length; state++) {
+                if ((distances[state] & 0xFF) != depth) continue;
+
+                unrank(state / cells, cells, positions);
+                occupied = 0;
+                for (int p : positions) occupied |= 1L << p;
+                long blankRegion = region(state % cells, all & ~occupied, adjacent);
+
+                for (int i = 0; i < k; i++) {
+                    int p = positions[i];
+                    for (long targets = adjacent[p] & blankRegion; targets != 0; targets &= targets - 1) {
+                        int c = Long.numberOfTrailingZeros(targets);
+
+                        positions[i] = c;
+                        long nextRegion = region(p, all & ~(occupied ^ (1L << p) ^ (1L << c)), adjacent);
+                        int next = rank(positions) * cells + Long.numberOfTrailingZeros(nextRegion);
+                        positions[i] = p;
+
+                        if (distances[next] == UNKNOWN) {
+                            distances[next] = (byte) (depth + 1);
+                            found = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        // the estimate can't know where the blank is, so it takes the closest region
+        for (int placement = 0; placement < table.capacity(); placement++) {
+            int best = UNKNOWN & 0xFF;
+            for (int c = 0; c < cells; c++) {
+                int d = distances[placement * cells + c] & 0xFF;
+                if (d < best) best = d;
+            }
+            table.put(placement, (byte) best);
+        }
+    }
+
+    // for the groups too large to track the blank: any tile of the group can move into an adjacent cell
+    // that the group doesn't occupy, which is a relaxation of the one above and still a lower bound,
+    // though hardly above the Manhattan distance of the group
+    private void searchWithoutBlank() {
+        int cells = n * n, k = pattern.length, size = table.capacity();
+        long[] adjacent = adjacentCells();
+
+        for (int placement = 0; placement < size; placement++) {
+            table.put(placement, UNKNOWN);
+        }
+
+        int[] positions = goalPositions();
+        table.put(rank(positions), (byte) 0);
+
+        boolean found = true;
+        for (int depth = 0; found; depth++) {
+            found = false;
+            for (int placement = 0; placement < size; placement++) {
+                if ((table.get(placement) & 0xFF) != depth) continue;
+
+                unrank(placement, cells, positions);
+                long occupied = 0;
+                for (int p : positions) occupied |= 1L << p;
+
+                for (int i = 0; i < k; i++) {
+                    int p = positions[i];
+                    for (long targets = adjacent[p] & ~occupied; targets != 0; targets &= targets - 1) {
+                        positions[i] = Long.numberOfTrailingZeros(targets);
+                        int next = rank(positions);
+                        positions[i] = p;
+
+                        if (table.get(next) == UNKNOWN) {
+                            table.put(next, (byte) (depth + 1));
+                            found = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // writes the database to the file
+    public void save(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4 * (3 + pattern.length));
+        header.putInt(MAGIC).putInt(n).putInt(pattern.length);
+        for (int tile : pattern) {
+            header.putInt(tile);
+        }
+        header.flip();
+
+        ByteBuffer distances = table.duplicate();
+        distances.clear();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) channel.write(header);
+            while (distances.hasRemaining()) channel.write(distances);
+        }
+    }
+
+    // maps the database saved in the file into memory
+    public static PatternDatabase load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (mapped.getInt(0) != MAGIC) throw new IOException(file + " is not a pattern database");
+
+            int n = mapped.getInt(4), k = mapped.getInt(8);
+            int[] pattern = new int[k];
+            long placements = 1;
+            for (int i = 0; i < k; i++) {
+                pattern[i] = mapped.getInt(12 + 4 * i);
+                placements *= n * n - i;
+            }
+
+            int offset = 12 + 4 * k;
+            if (channel.size() != offset + placements) throw new IOException(file + " is truncated");
+
+            mapped.position(offset);
+            return new PatternDatabase(n, pattern, mapped.slice());
+        }
+    }
+
+    // builds the default partition for the dimension into the files <prefix>-1.pdb, <prefix>-2.pdb, ...
+    public static void main(String[] args) throws IOException {
+        int n = Integer.parseInt(args[0]);
+        String prefix = args.length > 1 ? args[1] : "pdb" + n;
+
+        int[][] partition = defaultPartition(n);
+        for (int i = 0; i < partition.length; i++) {
+            long start = System.currentTimeMillis();
+            Path file = Paths.get(prefix + "-" + (i + 1) + ".pdb");
+            build(n, partition[i]).save(file);
+            System.out.println(file + ": tiles " + Arrays.toString(partition[i])
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+}
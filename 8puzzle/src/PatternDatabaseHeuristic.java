@@ -0,0 +1,60 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Sum of disjoint pattern databases, e.g. 6-6-3 for 4x4 or 5-5-5-5-4 for 5x5
+ */
+public class PatternDatabaseHeuristic implements Heuristic {
+
+    private final PatternDatabase[] databases;
+    // database of each tile, null for the tiles out of all of them
+    private final PatternDatabase[] databaseOfTile;
+
+    public PatternDatabaseHeuristic(PatternDatabase... databases) {
+        if (databases == null || databases.length == 0) throw new java.lang.IllegalArgumentException();
+
+        int n = databases[0].dimension();
+        this.databases = databases.clone();
+        this.databaseOfTile = new PatternDatabase[n * n];
+
+        for (PatternDatabase database : databases) {
+            if (database.dimension() != n) throw new java.lang.IllegalArgumentException("different dimensions");
+
+            for (int tile = 1; tile < n * n; tile++) {
+                if (!database.contains(tile)) continue;
+                // a tile counted twice could overestimate the moves
+                if (databaseOfTile[tile] != null) throw new java.lang.IllegalArgumentException("tile " + tile + " repeats");
+                databaseOfTile[tile] = database;
+            }
+        }
+    }
+
+    // maps the databases saved in the files
+    public static PatternDatabaseHeuristic load(Path... files) throws IOException {
+        PatternDatabase[] databases = new PatternDatabase[files.length];
+        for (int i = 0; i < files.length; i++) {
+            databases[i] = PatternDatabase.load(files[i]);
+        }
+        return new PatternDatabaseHeuristic(databases);
+    }
+
+    @Override
+    public int estimate(Board board) {
+        if (board.dimension() != databases[0].dimension()) throw new java.lang.IllegalArgumentException();
+
+        int result = 0;
+        for (PatternDatabase database : databases) {
+            result += database.distance(board);
+        }
+        return result;
+    }
+
+    @Override
+    public int update(Board board, int estimate, int tile, int from, int to) {
+        // only the database of the moved tile changes; the previous board is this one with 'from' and 'to' swapped
+        PatternDatabase database = databaseOfTile[tile];
+        if (database == null) return estimate;
+
+        return estimate - database.distance(board, from, to) + database.distance(board);
+    }
+}
@@ -0,0 +1,223 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the boards of a puzzle input one after another, decoding the tiles straight into the board state
+ * without an int[][] or a Scanner in between. Files are mapped into memory, other inputs are read through
+ * a buffer. Two formats are recognized by their first bytes:
+ * text - the dimension n followed by the n^2 blocks row by row, as Solver takes it, any number of times;
+ * binary - the magic "PZB1", then for every board a byte with n followed by the blocks row by row,
+ * a byte each if n is at most 16, two bytes big-endian otherwise.
+ */
+public class PuzzleReader implements Closeable {
+
+    // first bytes of the binary format
+    static final int MAGIC = 0x505A4231;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // the mapped file or the buffer over the channel
+    private ByteBuffer buffer;
+    // null when the whole input is mapped
+    private final ReadableByteChannel channel;
+    private final boolean isBinary;
+
+    private PuzzleReader(ByteBuffer buffer, ReadableByteChannel channel) throws IOException {
+        this.buffer = buffer;
+        this.channel = channel;
+
+        this.isBinary = ensure(4) && buffer.getInt(buffer.position()) == MAGIC;
+        if (isBinary) buffer.position(buffer.position() + 4);
+    }
+
+    // maps the file
+    public static PuzzleReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() <= Integer.MAX_VALUE) {
+                // the mapping stays valid after the channel is closed
+                return new PuzzleReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), null);
+            }
+        }
+
+        // too large to map at once
+        return open(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    // reads the bytes from their position to their limit, e.g. a line of a request
+    public static PuzzleReader open(ByteBuffer bytes) throws IOException {
+        return new PuzzleReader(bytes.slice(), null);
+    }
+
+    // reads the channel through a buffer
+    public static PuzzleReader open(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.flip();
+        return new PuzzleReader(buffer, channel);
+    }
+
+    public static PuzzleReader open(InputStream in) throws IOException {
+        return open(Channels.newChannel(in));
+    }
+
+    // the file, or standard input for "-"
+    public static PuzzleReader open(String name) throws IOException {
+        return name.equals("-") ? open(System.in) : open(Paths.get(name));
+    }
+
+    // are there enough bytes left, reading more of the channel if needed?
+    private boolean ensure(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            if (channel == null) return false;
+
+            if (buffer.capacity() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(bytes, 2 * buffer.capacity()));
+                larger.put(buffer);
+                larger.flip();
+                buffer = larger;
+            }
+
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) return buffer.remaining() >= bytes;
+        }
+        return true;
+    }
+
+    // is there another board?
+    public boolean hasNext() throws IOException {
+        if (isBinary) return ensure(1);
+
+        return skipWhitespace();
+    }
+
+    // the next board of the input
+    public Board next() throws IOException {
+        if (!hasNext()) throw new NoSuchElementException("no more boards");
+
+        int n = isBinary ? buffer.get() & 0xFF : readInt();
+        if (n < 1) throw new IllegalArgumentException("dimension " + n);
+
+        int size = n * n, blankIndex = -1;
+        boolean isWide = n > 16;
+        if (isBinary && !ensure(isWide ? 2 * size : size)) throw new IllegalArgumentException("truncated board");
+
+        if (Board.isPacked(n)) {
+            long packed = 0;
+            for (int k = 0; k < size; k++) {
+                int tile = isBinary ? buffer.get() & 0xFF : readInt();
+                if (tile >= size) throw new IllegalArgumentException("block " + tile + " on a board of dimension " + n);
+
+                packed |= (long) tile << (k << 2);
+                if (tile == 0) blankIndex = k;
+            }
+            return new Board(n, packed, blankIndex);
+        }
+
+        char[] tiles = new char[size];
+        for (int k = 0; k < size; k++) {
+            int tile = !isBinary ? readInt() : isWide ? buffer.getChar() : buffer.get() & 0xFF;
+            if (tile >= size) throw new IllegalArgumentException("block " + tile + " on a board of dimension " + n);
+
+            tiles[k] = (char) tile;
+            if (tile == 0) blankIndex = k;
+        }
+        return new Board(n, tiles, blankIndex);
+    }
+
+    // skips the whitespace of the text; false at the end of the input
+    private boolean skipWhitespace() throws IOException {
+        while (ensure(1)) {
+            byte b = buffer.get(buffer.position());
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') return true;
+            buffer.get();
+        }
+        return false;
+    }
+
+    // the next non-negative decimal number of the text
+    private int readInt() throws IOException {
+        if (!skipWhitespace()) throw new IllegalArgumentException("truncated board");
+
+        int result = 0, digits = 0;
+        while (ensure(1)) {
+            int digit = buffer.get(buffer.position()) - '0';
+            if (digit < 0 || digit > 9) break;
+
+            buffer.get();
+            result = 10 * result + digit;
+            if (++digits > 9) throw new IllegalArgumentException("number too long");
+        }
+
+        if (digits == 0) {
+            throw new IllegalArgumentException("unexpected character '" + (char) buffer.get(buffer.position()) + "'");
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+        buffer = null;
+    }
+
+    // writes the boards in the binary format
+    public static void writeBinary(Iterable<Board> boards, WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.putInt(MAGIC);
+
+        for (Board board : boards) {
+            int n = board.dimension();
+            if (n > 0xFF) throw new IllegalArgumentException("dimension " + n);
+
+            int bytes = 1 + (n > 16 ? 2 : 1) * n * n;
+            if (buffer.remaining() < bytes) {
+                drain(buffer, out);
+                if (buffer.capacity() < bytes) buffer = ByteBuffer.allocate(bytes);
+            }
+
+            buffer.put((byte) n);
+            for (int k = 0; k < n * n; k++) {
+                if (n > 16) buffer.putChar((char) board.tileAt(k));
+                else buffer.put((byte) board.tileAt(k));
+            }
+        }
+
+        drain(buffer, out);
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // converts the boards of a text input into the binary format
+    // usage: java PuzzleReader input output
+    public static void main(String[] args) throws IOException {
+        java.util.List<Board> boards = new java.util.ArrayList<>();
+        try (PuzzleReader reader = open(args[0])) {
+            while (reader.hasNext()) {
+                boards.add(reader.next());
+            }
+        }
+
+        try (FileChannel out = FileChannel.open(Paths.get(args[1]), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeBinary(boards, out);
+        }
+        System.out.println(boards.size() + " boards written to " + args[1]);
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.function.LongSupplier;
+
+/**
+ * The nodes, the time and the memory a search may use, from SolverOptions, with the expansions counted so far.
+ * The clock, the estimated bytes of the search and the interrupt status of the thread are checked every few
+ * expansions only; an interrupted search is aborted with a SolverAbortedException.
+ */
+class SearchBudget {
+
+    // expansions between two checks of the clock, the memory and the interrupts
+    private static final int CHECK_INTERVAL = 1 << 10;
+
+    private final long nodeLimit;
+    // the System.nanoTime() to stop at, Long.MAX_VALUE if there is none
+    private final long deadline;
+    private final long memoryLimit;
+    // estimated bytes of the nodes of the search
+    private final LongSupplier memory;
+    // handed to the SolverAbortedException; null unless the solve is counted
+    private final SolverStats stats;
+    private long expansions = 0;
+
+    public SearchBudget(SolverOptions options, SolverStats stats, LongSupplier memory) {
+        this.nodeLimit = options.nodeLimit();
+        this.deadline = options.timeLimit() == Long.MAX_VALUE ? Long.MAX_VALUE
+                : System.nanoTime() + java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(options.timeLimit());
+        this.memoryLimit = options.memoryLimit();
+        this.memory = memory;
+        this.stats = stats;
+    }
+
+    // counts an expansion; has the search used up its nodes, its time or its memory?
+    public boolean isSpent() {
+        if (++expansions > nodeLimit) return true;
+        if (expansions % CHECK_INTERVAL != 0) return false;
+
+        if (Thread.currentThread().isInterrupted()) {
+            if (stats != null) stats.endSearch();
+            throw new SolverAbortedException("interrupted after " + expansions + " expansions", stats);
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() > deadline) return true;
+
+        return memoryLimit != Long.MAX_VALUE && memory.getAsLong() > memoryLimit;
+    }
+
+    // counts the expansions of one of the threads of a search at once; has the search used up its nodes, its time
+    // or its memory? The interrupts are left to the thread that waits for the search
+    public synchronized boolean isSpent(int count) {
+        long before = expansions;
+        expansions += count;
+        if (expansions > nodeLimit) return true;
+        if (expansions / CHECK_INTERVAL == before / CHECK_INTERVAL) return false;
+
+        if (deadline != Long.MAX_VALUE && System.nanoTime() > deadline) return true;
+
+        return memoryLimit != Long.MAX_VALUE && memory.getAsLong() > memoryLimit;
+    }
+}
@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checkpoint file of an IDA* search: the initial board, the threshold of the current iteration, the least
+ * priority above it met so far and the path to the node being expanded, enough to go on from that node.
+ * Format: the magic "IDC1", n, the n^2 blocks, the two thresholds and the path length, then the blank indices
+ * of the path; the numbers are ints, the blocks and the indices chars. The snapshots are written by a thread
+ * of their own into a temporary file, which then replaces the checkpoint at once, so the search goes on
+ * in the meantime and a crash leaves the last complete checkpoint behind.
+ */
+class SearchCheckpoint {
+
+    private static final int MAGIC = 0x49444331;
+
+    // what the search goes on from
+    static class State {
+        final int threshold;
+        final int nextThreshold;
+        // blank indices from the initial board to the node being expanded
+        final int[] path;
+
+        State(int threshold, int nextThreshold, int[] path) {
+            this.threshold = threshold;
+            this.nextThreshold = nextThreshold;
+            this.path = path;
+        }
+    }
+
+    private final Path file;
+    private final Path temporary;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // the snapshot being written; null if there is none
+    private Future<?> pending;
+
+    public SearchCheckpoint(Path file) {
+        this.file = file;
+        this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    // the state saved for the initial board; null if there is no checkpoint or it is one of another board
+    public State load(Board initial) {
+        ByteBuffer bytes;
+        try {
+            bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            int n = initial.dimension();
+            if (bytes.getInt() != MAGIC || bytes.getInt() != n) return null;
+            for (int k = 0; k < n * n; k++) {
+                if (bytes.getChar() != initial.tileAt(k)) return null;
+            }
+
+            int threshold = bytes.getInt(), nextThreshold = bytes.getInt();
+            int[] path = new int[bytes.getInt()];
+            for (int i = 0; i < path.length; i++) {
+                path[i] = bytes.getChar();
+                // the steps are checked, as the search replays them
+                if (i == 0 ? path[0] != initial.blankIndex() : path[i] >= n * n) throw new IllegalArgumentException();
+                if (i > 0) Direction.of(path[i - 1], path[i], n);
+            }
+            if (path.length == 0) throw new IllegalArgumentException();
+
+            return new State(threshold, nextThreshold, path);
+        } catch (RuntimeException e) {
+            throw new UncheckedIOException(new IOException(file + " is not a checkpoint of the board", e));
+        }
+    }
+
+    // writes the state in the background unless the snapshot before it is still being written;
+    // false if it is skipped
+    public boolean saveLater(Board initial, State state) {
+        if (pending != null && !pending.isDone()) return false;
+
+        ByteBuffer bytes = encode(initial, state);
+        pending = writer.submit(() -> {
+            write(bytes);
+            return null;
+        });
+        return true;
+    }
+
+    // writes the state and waits for it, after the snapshot being written if there is one
+    public void save(Board initial, State state) {
+        ByteBuffer bytes = encode(initial, state);
+        // an interrupt would close the channel in the middle of the write, so it is put back after it
+        boolean interrupted = Thread.interrupted();
+        try {
+            await();
+            write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    // removes the checkpoint of a search that is over
+    public void delete() {
+        await();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // waits for the snapshot being written and stops the writer thread
+    public void close() {
+        try {
+            await();
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    private void await() {
+        if (pending == null) return;
+
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            // the snapshot is complete or not there at all; the interrupt is left to the search
+            Thread.currentThread().interrupt();
+        } catch (java.util.concurrent.ExecutionException e) {
+            throw new UncheckedIOException(new IOException("checkpoint failed", e.getCause()));
+        } finally {
+            pending = null;
+        }
+    }
+
+    private static ByteBuffer encode(Board initial, State state) {
+        int n = initial.dimension();
+        ByteBuffer bytes = ByteBuffer.allocate(4 * 5 + 2 * n * n + 2 * state.path.length);
+        bytes.putInt(MAGIC).putInt(n);
+        for (int k = 0; k < n * n; k++) {
+            bytes.putChar((char) initial.tileAt(k));
+        }
+        bytes.putInt(state.threshold).putInt(state.nextThreshold).putInt(state.path.length);
+        for (int index : state.path) {
+            bytes.putChar((char) index);
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) channel.write(bytes);
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Node of the searches that keep a Board per node: the board with the node it has been reached from,
+ * its moves count and the estimate of the moves left. Ordered by priority, the smaller estimate first among
+ * the equal ones.
+ */
+class SearchNode implements Comparable<SearchNode> {
+    // rough bytes of a node on the heap, without its board
+    static final long BYTES = 40;
+
+    final Board board;
+    final SearchNode previousNode;
+    final int movesCount;
+    final int estimate;
+
+    public SearchNode(Board board, SearchNode previous, int estimate) {
+        this.board = board;
+        this.previousNode = previous;
+        this.movesCount = previous == null ? 0 : previous.movesCount + 1;
+        this.estimate = estimate;
+    }
+
+    public int priority() {
+        return movesCount + estimate;
+    }
+
+    @Override
+    public int compareTo(SearchNode that) {
+        if (this.priority() == that.priority()) {
+            return Integer.compare(this.estimate, that.estimate);
+        }
+
+        return Integer.compare(this.priority(), that.priority());
+    }
+}
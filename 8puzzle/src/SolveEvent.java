@@ -0,0 +1,78 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event of a solve with its SolverStats, so that slow solves can be matched with the GC
+ * and the rest of the recording. Enable it with e.g. -XX:StartFlightRecording; it is off otherwise.
+ */
+@Name("algs4.puzzle.Solve")
+@Label("Puzzle Solve")
+@Category({"algs4", "Puzzle"})
+@Description("A solve of the sliding puzzle by Solver")
+@StackTrace(false)
+class SolveEvent extends jdk.jfr.Event implements SolveRecorder.Recording {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Dimension")
+    int dimension;
+
+    @Label("Moves")
+    @Description("Moves of the solution, -1 if there is none")
+    int moves;
+
+    @Label("Expanded")
+    long expanded;
+
+    @Label("Generated")
+    long generated;
+
+    @Label("Duplicates")
+    long duplicates;
+
+    @Label("Heuristic Evaluations")
+    long heuristicEvaluations;
+
+    @Label("Peak Open")
+    long peakOpen;
+
+    @Label("Setup")
+    @Timespan(Timespan.NANOSECONDS)
+    long setup;
+
+    @Label("Search")
+    @Timespan(Timespan.NANOSECONDS)
+    long search;
+
+    @Label("Solution")
+    @Timespan(Timespan.NANOSECONDS)
+    long solution;
+
+    @Override
+    public void end(SolverOptions options, Board initial, int moves, SolverStats stats) {
+        if (!shouldCommit()) return;
+
+        algorithm = options.algorithm().name();
+        dimension = initial.dimension();
+        this.moves = moves;
+        // the counters are left at zero if the event has been enabled in the middle of the solve
+        if (stats != null) set(stats);
+        commit();
+    }
+
+    private void set(SolverStats stats) {
+        expanded = stats.expanded();
+        generated = stats.generated();
+        duplicates = stats.duplicates();
+        heuristicEvaluations = stats.heuristicEvaluations();
+        peakOpen = stats.peakOpen();
+        setup = stats.setupNanos();
+        search = stats.searchNanos();
+        solution = stats.solutionNanos();
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Records the solves as flight recorder events on the JDKs that have the flight recorder. Only
+ * FlightSolveRecorder and SolveEvent use its classes, and they are looked up at run time, so the Solver
+ * runs unrecorded on a JDK 8 and builds there without those two files.
+ */
+abstract class SolveRecorder {
+
+    // the recorder of this JDK; null if it has no flight recorder
+    private static final SolveRecorder RECORDER = load();
+
+    // a solve being recorded
+    interface Recording {
+        // whether the recording wants the counters of the solve
+        boolean isEnabled();
+
+        // records the end of the solve; stats are null unless they were counted from the start
+        void end(SolverOptions options, Board initial, int moves, SolverStats stats);
+    }
+
+    // starts recording a solve; null unless a recording is going on
+    static Recording begin() {
+        return RECORDER == null ? null : RECORDER.start();
+    }
+
+    // a recording of a solve starting now; null unless a recording is going on
+    abstract Recording start();
+
+    private static SolveRecorder load() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return (SolveRecorder) Class.forName("FlightSolveRecorder").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
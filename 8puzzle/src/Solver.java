@@ -1,6 +1,6 @@
-import edu.princeton.cs.algs4.In;
-import edu.princeton.cs.algs4.MinPQ;
-import edu.princeton.cs.algs4.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import edu.princeton.cs.algs4.StdOut;
 
 /**
@@ -8,122 +8,553 @@ import edu.princeton.cs.algs4.StdOut;
  */
 public class Solver {
 
-    private MinPQ<SearchNode> initialQueue;
-    private MinPQ<SearchNode> twinQueue;
+    // first weight of the anytime search unless the options set one, and its decrease after every search
+    private static final double ANYTIME_WEIGHT = 3;
+    private static final double ANYTIME_WEIGHT_STEP = 0.5;
+
+    // open nodes by priority, the last inserted first among the equal ones
+    private BucketQueue initialQueue;
+    // all the nodes reached by the search
+    private NodeArena nodes;
+    // the board the packed nodes are expanded on, one after another
+    private Board cursor;
+    private Heuristic heuristic;
+    // exact distances of the boards solved before; null if there are none
+    private DistanceCache distanceCache;
+    // best moves count seen so far for every enqueued board
+    private StateTable closedSet;
+
+    // counters of the solve; null unless they are asked for or recorded
+    private SolverStats stats;
+
+    // priority of the node taken last
+    private int lastPriority;
+    // factor of the estimates in the priorities, 1 for A*
+    private double weight = 1;
+    private long goalState;
+
+    // the nodes, time and memory the search may use
+    private SearchBudget budget;
+
+    // of the anytime search: the boards expanded by its current weighted search, the nodes that have been
+    // reached with fewer moves after their board had been expanded, and the best goal node reached so far
+    private StateTable expandedSet;
+    private int[] inconsistent;
+    private int inconsistentCount = 0;
+    private int incumbent = -1;
+    private int incumbentMoves = Integer.MAX_VALUE;
+
+    // the solution is at most this many times longer than the shortest one
+    private double bound = 1;
+    private boolean solvable = false;
 
     private int minMovesCount = -1;
-    private Stack<Board> solutionSequence = null;
-
-    // helper class for the search
-    private class SearchNode implements Comparable<SearchNode> {
-
-        private Board board;
-        private SearchNode previousNode;
-        private int movesCount = 0;
-        // cache for the priority
-        private int priority;
-
-        public SearchNode(Board current, SearchNode previous) {
-            this.board = current;
-            this.previousNode = previous;
-            if (previous != null) {
-                this.movesCount = previous.movesCount + 1;
-            }
-            this.priority = this.board.manhattan() + this.movesCount;
+    private Board initialBoard;
+    // steps of a shortest solution; null if unsolvable
+    private MoveSequence solutionMoves = null;
+
+    // find a solution to the initial board (using the A* algorithm)
+    public Solver(Board initial) {
+        this(initial, new SolverOptions());
+    }
+
+    // find a solution to the initial board using the algorithm of the options; a SolverAbortedException
+    // ends the search if the thread gets interrupted
+    public Solver(Board initial, SolverOptions options) {
+        if (initial == null || options == null) throw new java.lang.NullPointerException();
+
+        // the counting stays off unless somebody is going to look at it
+        SolveRecorder.Recording recording = SolveRecorder.begin();
+        if (options.collectStats() || recording != null && recording.isEnabled()) stats = new SolverStats();
+
+        solve(initial, options);
+
+        if (recording != null) recording.end(options, initial, minMovesCount, stats);
+    }
+
+    // solves the initial board on the executor; cancelling the future interrupts the solve, which stops
+    // within a few expansions. A budget of the options ends the solve as in the constructor, without an exception
+    public static CompletableFuture<Solver> solveAsync(Board initial, SolverOptions options, Executor executor) {
+        if (initial == null || options == null || executor == null) throw new java.lang.NullPointerException();
+
+        SolveTask task = new SolveTask(initial, options);
+        executor.execute(task);
+        return task;
+    }
+
+    // the future of an asynchronous solve, which interrupts the thread of the solve when it is cancelled
+    private static class SolveTask extends CompletableFuture<Solver> implements Runnable {
+        private final Board initial;
+        private final SolverOptions options;
+        // the thread running the solve; null before and after
+        private Thread runner;
+
+        public SolveTask(Board initial, SolverOptions options) {
+            this.initial = initial;
+            this.options = options;
         }
 
-        public int priority() {
-            return priority;
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (isDone()) return;
+                runner = Thread.currentThread();
+            }
+
+            try {
+                complete(new Solver(initial, options));
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                // the interrupt of the cancel must not reach the next task of the thread
+                if (isCancelled()) Thread.interrupted();
+            }
         }
 
         @Override
-        public int compareTo(SearchNode that) {
-            if (this.priority() == that.priority()) {
-                return Integer.compare(this.board.manhattan(), that.board.manhattan());
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean result = super.cancel(mayInterruptIfRunning);
+            if (result && mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) runner.interrupt();
+                }
             }
+            return result;
+        }
+    }
+
+    private void solve(Board initial, SolverOptions options) {
+        // unsolvable boards are told apart by the permutation parity, without any search
+        if (!initial.isSolvable()) {
+            if (stats != null) stats.endSetup();
+            return;
+        }
+        solvable = true;
 
-            return Integer.compare(this.priority(), that.priority());
+        // a board solved before, or one on the way of an earlier solution, needs no search at all,
+        // and neither does a board of the distance table
+        distanceCache = options.distanceCache();
+        if (stats != null) stats.endSetup();
+        DistanceTable distanceTable = options.distanceTable();
+        if (distanceTable != null && distanceTable.dimension() == initial.dimension()) {
+            setSolution(initial, distanceTable.solution(initial));
+            return;
+        }
+        if (distanceCache != null) {
+            int[] cached = distanceCache.solution(initial);
+            if (cached != null) {
+                setSolution(initial, cached);
+                return;
+            }
+        }
+
+        switch (options.algorithm()) {
+            case IDA_STAR:
+                setSolution(initial, new IdaStarSearch(initial, options, stats).search());
+                break;
+            case BIDIRECTIONAL:
+                setSolution(initial, new BidirectionalSearch(initial, options, stats).search());
+                break;
+            case PARALLEL_ASTAR:
+                setSolution(initial, new ParallelSearch(initial, options, stats).search());
+                break;
+            case ANYTIME_ASTAR:
+                searchAnytime(initial, options);
+                break;
+            default:
+                searchAStar(initial, options);
         }
     }
 
-    // find a solution to the initial board (using the A* algorithm)
-    public Solver(Board initial) {
-        initialQueue = new MinPQ<>();
-        twinQueue = new MinPQ<>();
+    // the path from the initial board to the goal board, with the given blank indices, at most bound times longer
+    // than a shortest one, which has to be set before; null if the budget ran out first
+    private void setSolution(Board initial, int[] blankIndices) {
+        if (stats != null) stats.endSearch();
+        if (blankIndices == null) {
+            bound = Double.POSITIVE_INFINITY;
+            return;
+        }
+
+        // only a shortest solution gives the exact distances the cache holds
+        if (distanceCache != null && bound == 1) distanceCache.putSolution(initial, blankIndices);
+        saveSolution(initial, blankIndices);
+
+        if (stats != null) stats.endSolution();
+    }
+
+    // runs A*, weighted unless the weight is 1, with a closed set until the goal or the end of the budget
+    private void searchAStar(Board initial, SolverOptions options) {
+        setUpSearch(initial, options, options.weight());
 
-        SearchNode currentNode = new SearchNode(initial, null);
-        initialQueue.insert(currentNode);
+        int currentNode;
+        while (true) {
+            if (budget.isSpent()) {
+                // no solution within the budget
+                setSolution(initial, null);
+                return;
+            }
+
+            currentNode = pop();
+            if (isGoal(currentNode)) break;
+
+            int[] suffix = cachedSuffix(currentNode);
+            if (suffix != null) {
+                bound = weight;
+                setSolution(initial, join(nodes.path(currentNode), suffix));
+                return;
+            }
+            expand(currentNode);
+        }
+
+        // the first goal taken is at most the weight times longer than the shortest solution
+        bound = weight;
+        setSolution(initial, nodes.path(currentNode));
+    }
 
-        SearchNode twinNode = new SearchNode(initial.twin(), null);
-        twinQueue.insert(twinNode);
+    // runs anytime repairing A* (ARA*): weighted A* searches with a decreasing weight, each one reusing the nodes
+    // of the previous ones, which improve the solution until it is the optimal one or the budget runs out
+    private void searchAnytime(Board initial, SolverOptions options) {
+        double weight = options.weight() > 1 ? options.weight() : ANYTIME_WEIGHT;
+        setUpSearch(initial, options, weight);
+        expandedSet = new StateTable();
+        inconsistent = new int[64];
 
-        int step = 0;
-        do {
-            currentNode = makeMove(initialQueue, currentNode.board);
-            twinNode = makeMove(twinQueue, twinNode.board);
-            step++;
-        } while (!currentNode.board.isGoal() && !twinNode.board.isGoal());
+        if (initial.isGoal()) {
+            setSolution(initial, nodes.path(0));
+            return;
+        }
 
-        if (currentNode.board.isGoal()) {
-            minMovesCount = currentNode.movesCount;
+        double lastBound = Double.POSITIVE_INFINITY;
+        while (improvePath()) {
+            // no node left can lead to a solution shorter than its g + h, so neither can any other one
+            lastBound = Math.min(this.weight, incumbentMoves / (double) reprioritize(this.weight));
+            if (lastBound <= 1) break;
 
-            SearchNode solutionNode = currentNode;
-            solutionSequence = new Stack<>();
+            // the next search goes on from where the last one stopped, with the smaller weight
+            this.weight = Math.max(1, Math.min(this.weight - ANYTIME_WEIGHT_STEP, lastBound));
+            reprioritize(this.weight);
+            expandedSet = new StateTable();
+        }
 
-            do {
-                solutionSequence.push(solutionNode.board);
-                solutionNode = solutionNode.previousNode;
-            } while (solutionNode != null);
+        if (incumbent < 0) {
+            setSolution(initial, null);
+            return;
         }
+
+        // the budget may have run out in the middle of a search, which is still bounded by the last complete one
+        bound = Math.max(1, Math.min(lastBound, incumbentMoves / (double) reprioritize(this.weight)));
+        setSolution(initial, nodes.path(incumbent));
     }
 
-    // performs one search step
-    private SearchNode makeMove(MinPQ<SearchNode> searchQueue, Board previousBoard) {
-        SearchNode result = searchQueue.delMin();
+    // expands the nodes of the least priority while they may lead to a solution shorter than the one found;
+    // false if the budget runs out first
+    private boolean improvePath() {
+        while (!initialQueue.isEmpty() && initialQueue.minPriority() < incumbentMoves) {
+            if (budget.isSpent()) return false;
+
+            int node = pop();
+            if (node < 0) break;
+
+            // the goal has no neighbours to improve
+            if (node == incumbent) continue;
 
-        Iterable<Board> neighbors = result.board.neighbors();
-        for (Board neighborBoard : neighbors) {
-            // A critical optimization: don't enqueue a neighbor if its board is the same
-            // as the board of the previous search node.
-            if (previousBoard == null || !neighborBoard.equals(previousBoard)) {
-                searchQueue.insert(new SearchNode(neighborBoard, result));
+            if (cursor != null) {
+                expandedSet.put(nodes.state(node), 0);
+            } else {
+                expandedSet.put(nodes.board(node), 0);
             }
+            expand(node);
+        }
+        return true;
+    }
+
+    // requeues the open and the inconsistent nodes with the priorities of the weight and returns
+    // the least moves count plus estimate among them, the moves of the solution found if there are none
+    private int reprioritize(double weight) {
+        this.weight = weight;
+        BucketQueue queue = new BucketQueue();
+        int result = incumbentMoves;
+
+        while (inconsistentCount > 0 || !initialQueue.isEmpty()) {
+            int node = inconsistentCount > 0 ? inconsistent[--inconsistentCount] : initialQueue.delMin();
+            // skipping the nodes whose board has been reached with fewer moves since they were enqueued
+            if (nodes.movesCount(node) > bestMovesCount(node)) continue;
+
+            int estimate = estimate(node);
+            result = Math.min(result, nodes.movesCount(node) + estimate);
+            queue.insert(node, priority(nodes.movesCount(node), estimate));
+        }
+
+        initialQueue = queue;
+        return result;
+    }
+
+    private void setUpSearch(Board initial, SolverOptions options, double weight) {
+        this.heuristic = options.heuristic();
+        this.weight = weight;
+        this.budget = new SearchBudget(options, stats, this::searchBytes);
+
+        initialQueue = new BucketQueue();
+        nodes = new NodeArena(initial.isPacked());
+        closedSet = new StateTable();
+
+        int root;
+        if (initial.isPacked()) {
+            cursor = initial.copy();
+            goalState = Board.goal(initial.dimension()).packedState();
+            root = nodes.add(initial.packedState(), null, initial.blankIndex(), -1, heuristic.estimate(initial));
+            closedSet.put(initial.packedState(), 0);
+        } else {
+            root = nodes.add(0, initial, initial.blankIndex(), -1, heuristic.estimate(initial));
+            closedSet.put(initial, 0);
         }
+        initialQueue.insert(root, priority(0, estimate(root)));
+        if (stats != null) stats.heuristicEvaluations++;
+    }
 
+    // rough bytes of the nodes, the closed set and the open list of the search
+    private long searchBytes() {
+        long result = nodes.bytes() + closedSet.bytes() + initialQueue.bytes();
+        if (expandedSet != null) result += expandedSet.bytes() + 4L * inconsistent.length;
         return result;
     }
 
+    private boolean isGoal(int node) {
+        return cursor != null ? nodes.state(node) == goalState : nodes.board(node).isGoal();
+    }
+
+    // blank indices of a cached shortest way from the node to the goal if it is the node's priority that has
+    // been the least one, so no other node can lead to a shorter solution; null otherwise
+    private int[] cachedSuffix(int node) {
+        if (distanceCache == null || cursor == null) return null;
+
+        int distance = distanceCache.get(nodes.state(node));
+        if (distance == StateTable.NOT_FOUND || nodes.movesCount(node) + distance > lastPriority) return null;
+
+        cursor.load(nodes.state(node), nodes.blankIndex(node));
+        return distanceCache.solution(cursor);
+    }
+
+    // the path followed by the suffix that starts at its last board
+    private static int[] join(int[] path, int[] suffix) {
+        int[] result = java.util.Arrays.copyOf(path, path.length + suffix.length - 1);
+        System.arraycopy(suffix, 1, result, path.length, suffix.length - 1);
+        return result;
+    }
+
+    // saves the solution given by the blank indices of its boards
+    private void saveSolution(Board initial, int[] blankIndices) {
+        minMovesCount = blankIndices.length - 1;
+        initialBoard = initial;
+        solutionMoves = new MoveSequence(blankIndices, initial.dimension());
+    }
+
+    // takes the open node of the least priority; -1 if there are none
+    private int pop() {
+        while (!initialQueue.isEmpty()) {
+            lastPriority = initialQueue.minPriority();
+            int node = initialQueue.delMin();
+            if (nodes.movesCount(node) <= bestMovesCount(node)) return node;
+
+            // skipping the nodes whose board has been reached with fewer moves since they were enqueued
+            if (stats != null) stats.duplicates++;
+        }
+        return -1;
+    }
+
+    // enqueues the neighbours of the node
+    private void expand(int node) {
+        Board board;
+        if (cursor != null) {
+            board = cursor;
+            board.load(nodes.state(node), nodes.blankIndex(node));
+        } else {
+            board = nodes.board(node);
+        }
+
+        int n = board.dimension();
+        int blank = nodes.blankIndex(node);
+        if (blank >= n)         enqueue(node, board, blank - n);
+        if (blank < n * n - n)  enqueue(node, board, blank + n);
+        if (blank % n != 0)     enqueue(node, board, blank - 1);
+        if (blank % n != n - 1) enqueue(node, board, blank + 1);
+
+        if (stats != null) {
+            stats.expanded++;
+            stats.open(initialQueue.size());
+        }
+    }
+
+    // the estimate of the node, its cached distance if there is one, as the heuristic never overestimates it;
+    // the arena keeps the heuristic's own estimate for the incremental updates of the neighbours
+    private int estimate(int node) {
+        int estimate = nodes.estimate(node);
+        if (distanceCache == null || cursor == null) return estimate;
+
+        int distance = distanceCache.get(nodes.state(node));
+        return distance == StateTable.NOT_FOUND ? estimate : Math.max(estimate, distance);
+    }
+
+    // moves count plus the weighted estimate
+    private int priority(int movesCount, int estimate) {
+        return movesCount + (weight == 1 ? estimate : (int) (weight * estimate));
+    }
+
+    private int bestMovesCount(int node) {
+        return cursor != null ? closedSet.get(nodes.state(node)) : closedSet.get(nodes.board(node));
+    }
+
+    // enqueues the neighbour of the node whose tile at index has been moved into the empty space
+    private void enqueue(int node, Board board, int index) {
+        // don't enqueue a neighbor if its board has been already seen with the same or fewer moves;
+        // that covers the critical optimization of skipping the board of the previous search node
+        int movesCount = nodes.movesCount(node) + 1;
+        int to = board.blankIndex();
+
+        if (cursor != null) {
+            // the packed neighbour is visited on the cursor itself and slid back afterwards
+            board.slide(index);
+            long state = board.packedState();
+            int bestMovesCount = closedSet.get(state);
+            boolean isNew = bestMovesCount == StateTable.NOT_FOUND || movesCount < bestMovesCount;
+            if (stats != null) count(isNew);
+            if (isNew) {
+                closedSet.put(state, movesCount);
+                int estimate = heuristic.update(board, nodes.estimate(node), board.tileAt(to), index, to);
+                open(nodes.add(state, null, index, node, estimate), expandedSet != null && expandedSet.get(state) != StateTable.NOT_FOUND);
+            }
+            board.slide(to);
+            return;
+        }
+
+        Board neighborBoard = board.neighbor(index);
+        int bestMovesCount = closedSet.get(neighborBoard);
+        boolean isNew = bestMovesCount == StateTable.NOT_FOUND || movesCount < bestMovesCount;
+        if (stats != null) count(isNew);
+        if (isNew) {
+            closedSet.put(neighborBoard, movesCount);
+            int estimate = heuristic.update(neighborBoard, nodes.estimate(node), neighborBoard.tileAt(to), index, to);
+            open(nodes.add(0, neighborBoard, index, node, estimate), expandedSet != null && expandedSet.get(neighborBoard) != StateTable.NOT_FOUND);
+        }
+    }
+
+    // queues the new node, or keeps it aside until the next anytime search if its board has been expanded
+    // in this one already
+    private void open(int node, boolean isExpanded) {
+        if (expandedSet != null && isGoal(node) && nodes.movesCount(node) < incumbentMoves) {
+            incumbent = node;
+            incumbentMoves = nodes.movesCount(node);
+        }
+
+        if (isExpanded) {
+            if (inconsistentCount == inconsistent.length) {
+                inconsistent = java.util.Arrays.copyOf(inconsistent, 2 * inconsistent.length);
+            }
+            inconsistent[inconsistentCount++] = node;
+            return;
+        }
+
+        initialQueue.insert(node, priority(nodes.movesCount(node), estimate(node)));
+    }
+
+    // counts a generated neighbour, enqueued with a new estimate or dropped as a duplicate
+    private void count(boolean isNew) {
+        stats.generated++;
+        if (isNew) {
+            stats.heuristicEvaluations++;
+        } else {
+            stats.duplicates++;
+        }
+    }
+
     // is the initial board solvable?
     public boolean isSolvable() {
-        return (moves() >= 0);
+        return solvable;
     }
 
-    // min number of moves to solve initial board; -1 if unsolvable
+    // min number of moves to solve initial board; -1 if unsolvable or if no solution was found within the budget
+    // of the options; with the weighted and anytime searches the moves of the solution found, see suboptimalityBound()
     public int moves() {
         return minMovesCount;
     }
 
+    // the solution is at most this many times longer than a shortest one: 1 for the optimal searches,
+    // the weight for the weighted A* and the proven bound for the anytime one;
+    // infinite if no solution was found within the budget
+    public double suboptimalityBound() {
+        return bound;
+    }
+
     // sequence of boards in a shortest solution; null if unsolvable
     public Iterable<Board> solution() {
-        return solutionSequence;
+        return solutionMoves == null ? null : solutionMoves.boards(initialBoard);
+    }
+
+    // counters of the solve; null unless SolverOptions.collectStats() asked for them or a flight recording
+    // of the solve events is on
+    public SolverStats stats() {
+        return stats;
+    }
+
+    // steps of the empty space in a shortest solution; null if unsolvable
+    public Iterable<Direction> directions() {
+        return solutionMoves;
+    }
+
+    // heuristic for the boards of dimension n by its name: manhattan, linear_conflict, walking_distance
+    // or pdb:<file>,<file>,... with the pattern databases built by PatternDatabase
+    static Heuristic heuristic(String name, int n) throws java.io.IOException {
+        if (name.equalsIgnoreCase("manhattan")) {
+            return new ManhattanHeuristic();
+        }
+        if (name.equalsIgnoreCase("linear_conflict")) {
+            return new LinearConflictHeuristic();
+        }
+        if (name.equalsIgnoreCase("walking_distance")) {
+            return new WalkingDistanceHeuristic(n);
+        }
+        if (name.startsWith("pdb:")) {
+            String[] names = name.substring("pdb:".length()).split(",");
+            java.nio.file.Path[] files = new java.nio.file.Path[names.length];
+            for (int i = 0; i < names.length; i++) {
+                files[i] = java.nio.file.Paths.get(names[i]);
+            }
+            return PatternDatabaseHeuristic.load(files);
+        }
+
+        throw new java.lang.IllegalArgumentException("unknown heuristic " + name);
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws java.io.IOException {
 
-        // create initial board from file
-        In in = new In(args[0]);
-        int n = in.readInt();
-        int[][] blocks = new int[n][n];
-        for (int i = 0; i < n; i++)
-            for (int j = 0; j < n; j++)
-                blocks[i][j] = in.readInt();
-        Board initial = new Board(blocks);
+        // create initial board from file, text or binary, see PuzzleReader
+        Board initial;
+        try (PuzzleReader reader = PuzzleReader.open(args[0])) {
+            initial = reader.next();
+        }
+        int n = initial.dimension();
 
 //        int[][] blocks = new int[][] { {1, 2, 3}, {4, 5, 6}, {8, 7, 0} };
 //        Board initial = new Board(blocks);
 
+        // the optional second argument names the algorithm, e.g. ida_star, the third one the heuristic,
+        // see heuristic(), and the fourth one the checkpoint file of IDA*
+        SolverOptions options = new SolverOptions();
+        if (args.length > 1) {
+            options.algorithm(SolverOptions.Algorithm.valueOf(args[1].toUpperCase()));
+        }
+        if (args.length > 2) {
+            options.heuristic(heuristic(args[2], n));
+        }
+        if (args.length > 3) {
+            options.checkpoint(java.nio.file.Paths.get(args[3]));
+        }
+
         // solve the puzzle
-        Solver solver = new Solver(initial);
+        Solver solver = new Solver(initial, options);
 
         // print solution to standard output
         if (!solver.isSolvable())
@@ -0,0 +1,21 @@
+/**
+ * Thrown by a solve that has been interrupted, or cancelled through the future of Solver.solveAsync(),
+ * with the counters of the work done until then
+ */
+public class SolverAbortedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    // null unless the solve was counted
+    private final transient SolverStats stats;
+
+    public SolverAbortedException(String message, SolverStats stats) {
+        super(message);
+        this.stats = stats;
+    }
+
+    // counters of the solve up to the abort; null unless SolverOptions.collectStats() asked for them
+    public SolverStats stats() {
+        return stats;
+    }
+}
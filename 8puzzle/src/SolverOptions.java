@@ -0,0 +1,180 @@
+/**
+ * Settings of the Solver: which search algorithm to run, on how many threads, which heuristic it uses
+ * and which cache of solved boards it shares with the other solves
+ */
+public class SolverOptions {
+
+    // search algorithms of the solver
+    public enum Algorithm {
+        // A* over a priority queue of search nodes, with a closed set
+        ASTAR,
+        // iterative deepening A*, memory linear in the solution depth
+        IDA_STAR,
+        // A* from both the initial and the goal board until the searches meet
+        BIDIRECTIONAL,
+        // hash-distributed A* on several threads
+        PARALLEL_ASTAR,
+        // anytime repairing A* (ARA*): solutions that get shorter with the time given, down to an optimal one
+        ANYTIME_ASTAR
+    }
+
+    private Algorithm algorithm = Algorithm.ASTAR;
+    private Heuristic heuristic = new ManhattanHeuristic();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private DistanceCache distanceCache = null;
+    private DistanceTable distanceTable = null;
+    private boolean collectStats = false;
+    private double weight = 1;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long timeLimit = Long.MAX_VALUE;
+    private long memoryLimit = Long.MAX_VALUE;
+    private java.nio.file.Path checkpoint = null;
+    private long checkpointInterval = 60_000;
+
+    // search algorithm, A* by default
+    public Algorithm algorithm() {
+        return algorithm;
+    }
+
+    public SolverOptions algorithm(Algorithm algorithm) {
+        if (algorithm == null) throw new java.lang.NullPointerException();
+
+        this.algorithm = algorithm;
+        return this;
+    }
+
+    // threads of the parallel search, all the processors by default
+    public int threads() {
+        return threads;
+    }
+
+    public SolverOptions threads(int threads) {
+        if (threads < 1) throw new java.lang.IllegalArgumentException();
+
+        this.threads = threads;
+        return this;
+    }
+
+    // estimate of the moves left, manhattan by default
+    public Heuristic heuristic() {
+        return heuristic;
+    }
+
+    public SolverOptions heuristic(Heuristic heuristic) {
+        if (heuristic == null) throw new java.lang.NullPointerException();
+
+        this.heuristic = heuristic;
+        return this;
+    }
+
+    // exact distances of the boards solved before, none by default
+    public DistanceCache distanceCache() {
+        return distanceCache;
+    }
+
+    public SolverOptions distanceCache(DistanceCache distanceCache) {
+        if (distanceCache == null) throw new java.lang.NullPointerException();
+
+        this.distanceCache = distanceCache;
+        return this;
+    }
+
+    // should the solver count its work, see Solver.stats()? Off by default
+    public boolean collectStats() {
+        return collectStats;
+    }
+
+    public SolverOptions collectStats(boolean collectStats) {
+        this.collectStats = collectStats;
+        return this;
+    }
+
+    // factor of the estimate in the priorities of ASTAR, which makes it the weighted A* for a weight above 1,
+    // and the first one of ANYTIME_ASTAR; 1 by default
+    public double weight() {
+        return weight;
+    }
+
+    public SolverOptions weight(double weight) {
+        if (!(weight >= 1) || Double.isInfinite(weight)) throw new java.lang.IllegalArgumentException("weight " + weight);
+
+        this.weight = weight;
+        return this;
+    }
+
+    // most nodes the search may expand, unlimited by default; PARALLEL_ASTAR counts them in small batches
+    // and may go a few past it
+    public long nodeLimit() {
+        return nodeLimit;
+    }
+
+    public SolverOptions nodeLimit(long nodeLimit) {
+        if (nodeLimit < 1) throw new java.lang.IllegalArgumentException();
+
+        this.nodeLimit = nodeLimit;
+        return this;
+    }
+
+    // milliseconds the search may take, Long.MAX_VALUE for unlimited by default
+    public long timeLimit() {
+        return timeLimit;
+    }
+
+    public SolverOptions timeLimit(long millis) {
+        if (millis < 1) throw new java.lang.IllegalArgumentException();
+
+        this.timeLimit = millis;
+        return this;
+    }
+
+    // most bytes the nodes of the search may take, as estimated from their
+    // number and layout, Long.MAX_VALUE for unlimited by default
+    public long memoryLimit() {
+        return memoryLimit;
+    }
+
+    public SolverOptions memoryLimit(long bytes) {
+        if (bytes < 1) throw new java.lang.IllegalArgumentException();
+
+        this.memoryLimit = bytes;
+        return this;
+    }
+
+    // file IDA_STAR saves its state to every checkpointInterval() and once its budget runs out or it is
+    // interrupted, and goes on from if it holds the state of the same board; removed once the search is over.
+    // None by default
+    public java.nio.file.Path checkpoint() {
+        return checkpoint;
+    }
+
+    public SolverOptions checkpoint(java.nio.file.Path file) {
+        if (file == null) throw new java.lang.NullPointerException();
+
+        this.checkpoint = file;
+        return this;
+    }
+
+    // milliseconds between the checkpoints, a minute by default
+    public long checkpointInterval() {
+        return checkpointInterval;
+    }
+
+    public SolverOptions checkpointInterval(long millis) {
+        if (millis < 1) throw new java.lang.IllegalArgumentException();
+
+        this.checkpointInterval = millis;
+        return this;
+    }
+
+    // exact distances of the boards of its dimension, which are then solved without any search; none by default
+    public DistanceTable distanceTable() {
+        return distanceTable;
+    }
+
+    public SolverOptions distanceTable(DistanceTable distanceTable) {
+        if (distanceTable == null) throw new java.lang.NullPointerException();
+
+        this.distanceTable = distanceTable;
+        return this;
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Solves the puzzles it is sent for as long as it runs, so the JVM start, the JIT warm-up and the setup of
+ * the heuristic tables are paid once and not on every solve. A request is a line with the dimension n followed
+ * by the n^2 blocks row by row; its answer is a line with the number of moves followed by the steps of the empty
+ * space as the letters U, D, L and R, or "unsolvable", "out of budget" or "error" with the reason. The requests
+ * of a client are solved concurrently on the shared pool and answered in their order. The server listens on
+ * the loopback port given by -port, or reads the requests from standard input without it; the other options
+ * are those of BatchSolver, and so are the heuristics and the caches shared by all the solves.
+ *
+ * Usage: java SolverServer [-port p] [BatchSolver options]
+ */
+public class SolverServer {
+
+    private final BatchSolver batch;
+    // runs the solves of all the clients
+    private final ExecutorService solvers;
+
+    public SolverServer(BatchSolver batch) {
+        this.batch = batch;
+        this.solvers = Executors.newFixedThreadPool(batch.threads());
+    }
+
+    // answers the requests of the input in their order until its end
+    public void serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader requests = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+        PrintWriter answers = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII));
+
+        // every answer is written once its solve and the answer before it are done
+        CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+        for (String line = requests.readLine(); line != null; line = requests.readLine()) {
+            if (line.trim().isEmpty()) continue;
+
+            CompletableFuture<String> answer = answer(line);
+            written = written.thenCombine(answer, (previous, text) -> text).thenAccept(text -> {
+                answers.println(text);
+                answers.flush();
+            });
+        }
+
+        written.join();
+    }
+
+    // the answer to the request line, once it is solved
+    private CompletableFuture<String> answer(String line) {
+        Board board;
+        SolverOptions options;
+        try (PuzzleReader reader = PuzzleReader.open(ByteBuffer.wrap(line.getBytes(StandardCharsets.US_ASCII)))) {
+            board = reader.next();
+            if (reader.hasNext()) throw new IllegalArgumentException("more than one board");
+            // the heuristic of the dimension may fail to set up, e.g. for a dimension it doesn't support
+            // or a missing pattern database file
+            options = batch.options(board);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.completedFuture("error " + e.getMessage());
+        }
+
+        return Solver.solveAsync(board, options, solvers)
+                .handle((solver, failure) -> failure != null ? "error " + failure.getMessage() : answer(solver));
+    }
+
+    private String answer(Solver solver) {
+        if (!solver.isSolvable()) return "unsolvable";
+        if (solver.moves() < 0) return "out of budget";
+
+        StringBuilder result = new StringBuilder().append(solver.moves());
+        if (solver.moves() > 0) result.append(' ');
+        for (Direction direction : solver.directions()) {
+            result.append(direction.name().charAt(0));
+        }
+        if (batch.collectStats()) result.append(" (").append(solver.stats()).append(')');
+        return result.toString();
+    }
+
+    // accepts the clients on the loopback port, each one on a thread of its own, until the server is stopped
+    public void listen(int port) throws IOException {
+        ExecutorService clients = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            while (true) {
+                Socket client = server.accept();
+                clients.execute(() -> {
+                    try (Socket socket = client) {
+                        serve(socket.getInputStream(), socket.getOutputStream());
+                    } catch (IOException e) {
+                        // the client has gone
+                    }
+                });
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    public void shutdown() {
+        solvers.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = -1;
+        List<String> options = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-port")) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                options.add(args[i]);
+            }
+        }
+
+        List<String> rest = new ArrayList<>();
+        BatchSolver batch = BatchSolver.parse(options.toArray(new String[0]), rest);
+        if (!rest.isEmpty()) throw new IllegalArgumentException("unknown arguments " + rest);
+
+        SolverServer server = new SolverServer(batch);
+        try {
+            if (port < 0) {
+                server.serve(System.in, System.out);
+            } else {
+                server.listen(port);
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+}
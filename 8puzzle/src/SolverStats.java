@@ -0,0 +1,102 @@
+/**
+ * Counters of a single solve, collected only when the options ask for them or a flight recording is on.
+ * The open list of IDA* is its current path, and the parallel search sums the peaks of its threads.
+ */
+public class SolverStats {
+
+    // nodes whose neighbours have been generated
+    long expanded;
+    // neighbours generated
+    long generated;
+    // neighbours dropped as their board had been reached with the same or fewer moves,
+    // plus the open nodes skipped for the same reason
+    long duplicates;
+    long heuristicEvaluations;
+    long peakOpen;
+
+    // wall time of the phases, in nanoseconds
+    private long setupNanos;
+    private long searchNanos;
+    private long solutionNanos;
+    // start of the current phase
+    private long phaseStart = System.nanoTime();
+
+    public long expanded() {
+        return expanded;
+    }
+
+    public long generated() {
+        return generated;
+    }
+
+    public long duplicates() {
+        return duplicates;
+    }
+
+    public long heuristicEvaluations() {
+        return heuristicEvaluations;
+    }
+
+    // the most open nodes at a time
+    public long peakOpen() {
+        return peakOpen;
+    }
+
+    // checking the board and setting up the search, in nanoseconds
+    public long setupNanos() {
+        return setupNanos;
+    }
+
+    // the search itself, in nanoseconds
+    public long searchNanos() {
+        return searchNanos;
+    }
+
+    // saving the found solution, in nanoseconds
+    public long solutionNanos() {
+        return solutionNanos;
+    }
+
+    public long totalNanos() {
+        return setupNanos + searchNanos + solutionNanos;
+    }
+
+    void open(long size) {
+        if (size > peakOpen) peakOpen = size;
+    }
+
+    // adds the counters of a part of the search, e.g. one thread of it
+    void add(SolverStats that) {
+        expanded += that.expanded;
+        generated += that.generated;
+        duplicates += that.duplicates;
+        heuristicEvaluations += that.heuristicEvaluations;
+        peakOpen += that.peakOpen;
+    }
+
+    void endSetup() {
+        setupNanos = lap();
+    }
+
+    void endSearch() {
+        searchNanos = lap();
+    }
+
+    void endSolution() {
+        solutionNanos = lap();
+    }
+
+    private long lap() {
+        long now = System.nanoTime();
+        long result = now - phaseStart;
+        phaseStart = now;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("expanded %d, generated %d, duplicates %d, heuristic %d, peak open %d, "
+                        + "setup %.3f ms, search %.3f ms, solution %.3f ms", expanded, generated, duplicates,
+                heuristicEvaluations, peakOpen, setupNanos / 1e6, searchNanos / 1e6, solutionNanos / 1e6);
+    }
+}
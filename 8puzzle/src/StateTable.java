@@ -0,0 +1,154 @@
+import java.util.HashMap;
+
+/**
+ * Open-addressing hash table from board states to non-negative values (e.g. the best moves count)
+ */
+public class StateTable {
+
+    // value of the states that are not in the table
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    // rough bytes of an entry of the HashMap of the larger boards, with its slot and value
+    private static final long ENTRY_BYTES = 56;
+
+    // linear probing over the packed states of the boards up to 4x4;
+    // values are stored plus one, so zero marks an empty slot
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size = 0;
+
+    // larger boards don't fit into a long and are kept as they are
+    private HashMap<Board, Integer> boards;
+
+    public StateTable() {
+        this(INITIAL_CAPACITY / 2);
+    }
+
+    // a table that holds the expected number of packed states without growing, so that it keeps its arrays
+    public StateTable(int expectedSize) {
+        if (expectedSize < 1 || expectedSize > 1 << 29) throw new java.lang.IllegalArgumentException();
+
+        int capacity = Integer.highestOneBit(2 * expectedSize - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // number of states in the table
+    public int size() {
+        return size + (boards == null ? 0 : boards.size());
+    }
+
+    // rough bytes of the table on the heap, without the boards it holds
+    public long bytes() {
+        return 12L * keys.length + (boards == null ? 0 : ENTRY_BYTES * boards.size());
+    }
+
+    // value of the board; NOT_FOUND if there is none
+    public int get(Board board) {
+        if (board.isPacked()) return get(board.packedState());
+
+        if (boards == null) return NOT_FOUND;
+
+        Integer value = boards.get(board);
+        return value == null ? NOT_FOUND : value;
+    }
+
+    // associates the non-negative value with the board
+    public void put(Board board, int value) {
+        if (board.isPacked()) {
+            put(board.packedState(), value);
+            return;
+        }
+
+        if (value < 0) throw new java.lang.IllegalArgumentException();
+        if (boards == null) boards = new HashMap<>();
+
+        boards.put(board, value);
+    }
+
+    // value of the packed state; NOT_FOUND if there is none
+    public int get(long key) {
+        for (int i = slot(key); values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i] - 1;
+        }
+
+        return NOT_FOUND;
+    }
+
+    // associates the non-negative value with the packed state
+    public void put(long key, int value) {
+        if (value < 0) throw new java.lang.IllegalArgumentException();
+
+        int i = slot(key);
+        for (; values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value + 1;
+                return;
+            }
+        }
+
+        keys[i] = key;
+        values[i] = value + 1;
+        size++;
+
+        // keeping the load factor at most 1/2
+        if (2 * size > keys.length) resize(2 * keys.length);
+    }
+
+    // removes the packed state from the table, if it is there
+    public void remove(long key) {
+        int i = slot(key);
+        for (; values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) break;
+        }
+        if (values[i] == 0) return;
+
+        // shifting back the following states of the run that would be cut off from their slots by the hole
+        for (int j = (i + 1) & mask; values[j] != 0; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            // the state stays unless the hole lies cyclically between its slot and its place
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+
+        values[i] = 0;
+        size--;
+    }
+
+    private int slot(long key) {
+        // murmur3 finalizer spreads the nibbles of the packed tiles over all the bits
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+
+        return (int) key & mask;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == 0) continue;
+
+            int i = slot(oldKeys[j]);
+            while (values[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Walking distance: the vertical part counts the moves needed if the tiles were told apart only by their goal rows
+ * (a move swaps the blank with any tile of an adjacent row), the horizontal part does the same for the columns.
+ * The distances of all such row (column) configurations are found once by a breadth-first search from the goal.
+ */
+public class WalkingDistanceHeuristic implements Heuristic {
+
+    // the configurations are packed into a long with 3 bits per count, so 4x4 is the largest board
+    private static final int MAX_DIMENSION = 4;
+    private static final int BLANK_SHIFT = 3 * MAX_DIMENSION * MAX_DIMENSION;
+
+    private final int n;
+    // distances from the goal of the configurations: counts[line][goal line] and the line of the blank
+    private final StateTable distances;
+
+    public WalkingDistanceHeuristic(int n) {
+        if (n < 2 || n > MAX_DIMENSION) {
+            throw new java.lang.IllegalArgumentException("walking distance supports boards from 2x2 up to 4x4");
+        }
+
+        this.n = n;
+        this.distances = new StateTable();
+        build();
+    }
+
+    // breadth-first search over the configurations from the goal one
+    private void build() {
+        long goal = (long) (n - 1) << BLANK_SHIFT;
+        for (int line = 0; line < n; line++) {
+            goal += (long) (line == n - 1 ? n - 1 : n) << shift(line, line);
+        }
+
+        long[] queue = new long[1 << 10];
+        int head = 0, tail = 0;
+        queue[tail++] = goal;
+        distances.put(goal, 0);
+
+        while (head < tail) {
+            long configuration = queue[head++];
+            int distance = distances.get(configuration);
+            int blankLine = (int) (configuration >>> BLANK_SHIFT);
+
+            for (int line = blankLine - 1; line <= blankLine + 1; line += 2) {
+                if (line < 0 || line >= n) continue;
+
+                // any tile of the adjacent line can be swapped with the blank
+                for (int goalLine = 0; goalLine < n; goalLine++) {
+                    if (count(configuration, line, goalLine) == 0) continue;
+
+                    long next = configuration - (1L << shift(line, goalLine)) + (1L << shift(blankLine, goalLine));
+                    next = (next & ~(3L << BLANK_SHIFT)) | ((long) line << BLANK_SHIFT);
+
+                    if (distances.get(next) != StateTable.NOT_FOUND) continue;
+
+                    distances.put(next, distance + 1);
+                    if (tail == queue.length) queue = java.util.Arrays.copyOf(queue, 2 * tail);
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    private int shift(int line, int goalLine) {
+        return 3 * (line * MAX_DIMENSION + goalLine);
+    }
+
+    private int count(long configuration, int line, int goalLine) {
+        return (int) (configuration >>> shift(line, goalLine)) & 7;
+    }
+
+    // configuration of the rows (or the columns) of the board
+    private long configuration(Board board, boolean columns) {
+        long result = 0;
+        for (int index = 0; index < n * n; index++) {
+            int tile = board.tileAt(index);
+            int line = columns ? index % n : index / n;
+
+            if (tile == 0) {
+                result |= (long) line << BLANK_SHIFT;
+            } else {
+                result += 1L << shift(line, columns ? (tile - 1) % n : (tile - 1) / n);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int estimate(Board board) {
+        if (board.dimension() != n) throw new java.lang.IllegalArgumentException();
+
+        return distances.get(configuration(board, false)) + distances.get(configuration(board, true));
+    }
+
+    @Override
+    public int update(Board board, int estimate, int tile, int from, int to) {
+        // the move changes only the configuration along its own direction; the previous one
+        // had the tile back at 'from' and the blank at 'to'
+        boolean columns = from / n == to / n;
+        int lineFrom = columns ? from % n : from / n;
+        int lineTo = columns ? to % n : to / n;
+        int goalLine = columns ? (tile - 1) % n : (tile - 1) / n;
+
+        long current = configuration(board, columns);
+        long previous = current - (1L << shift(lineTo, goalLine)) + (1L << shift(lineFrom, goalLine));
+        previous = (previous & ~(3L << BLANK_SHIFT)) | ((long) lineTo << BLANK_SHIFT);
+
+        return estimate - distances.get(previous) + distances.get(current);
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Tests of NodeArena, run with java NodeArenaTest; exits with an AssertionError on the first failure.
+ */
+public class NodeArenaTest {
+
+    // a path longer than a short can count, as the weighted searches of the large boards find
+    private static final int LONG_PATH = 40000;
+
+    // the moves count, priority and path of the last node of a long chain
+    private static void longPath() {
+        int n = 200;
+        Board board = Board.goal(n);
+        NodeArena nodes = new NodeArena(false);
+
+        // the blank steps left and right along the bottom row, so every blank index is known
+        int node = nodes.add(0, board, board.blankIndex(), -1, 0);
+        for (int i = 1; i <= LONG_PATH; i++) {
+            int blank = n * n - 1 - i % 2;
+            node = nodes.add(0, board, blank, node, 1);
+        }
+
+        check(nodes.movesCount(node) == LONG_PATH, "moves count " + nodes.movesCount(node));
+        check(nodes.priority(node) == LONG_PATH + 1, "priority " + nodes.priority(node));
+
+        int[] path = nodes.path(node);
+        check(path.length == LONG_PATH + 1, "path of " + path.length);
+        for (int i = 0; i <= LONG_PATH; i++) {
+            check(path[i] == n * n - 1 - i % 2, "blank index " + path[i] + " at step " + i);
+        }
+
+        // a priority that wrapped negative would be refused here
+        BucketQueue queue = new BucketQueue();
+        queue.insert(node, nodes.priority(node));
+        check(queue.delMin() == node, "queued node");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    public static void main(String[] args) {
+        longPath();
+        System.out.println("NodeArenaTest: ok");
+    }
+}
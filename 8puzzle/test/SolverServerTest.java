@@ -0,0 +1,53 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests of SolverServer, run with java SolverServerTest; exits with an AssertionError on the first failure.
+ */
+public class SolverServerTest {
+
+    // the answers of the server with the heuristic to the request lines
+    private static String[] serve(String heuristic, String... requests) throws IOException {
+        SolverServer server = new SolverServer(new BatchSolver(SolverOptions.Algorithm.ASTAR, heuristic, null));
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            String input = String.join("\n", requests) + "\n";
+            server.serve(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), out);
+            return new String(out.toByteArray(), StandardCharsets.US_ASCII).split("\r?\n");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    // a request whose heuristic can't be set up gets an error, and the next one is still answered
+    private static void unsupportedDimension() throws IOException {
+        String[] answers = serve("walking_distance",
+                "5 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 20 21 22 23 0 24",
+                "3 1 2 3 4 5 6 7 0 8");
+
+        check(answers.length == 2, answers.length + " answers");
+        check(answers[0].startsWith("error "), "answer " + answers[0]);
+        check(answers[1].equals("1 R"), "answer " + answers[1]);
+    }
+
+    // a line that isn't a board gets an error, and the next one is still answered
+    private static void malformedRequest() throws IOException {
+        String[] answers = serve("manhattan", "3 1 2", "2 1 2 0 3");
+
+        check(answers.length == 2, answers.length + " answers");
+        check(answers[0].startsWith("error "), "answer " + answers[0]);
+        check(answers[1].equals("1 R"), "answer " + answers[1]);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    public static void main(String[] args) throws IOException {
+        unsupportedDimension();
+        malformedRequest();
+        System.out.println("SolverServerTest: ok");
+    }
+}
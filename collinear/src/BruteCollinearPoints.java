@@ -55,22 +55,19 @@ public class BruteCollinearPoints {
 
             for (int i2 = i1 + 1; i2 < pointsArray.length - 2; i2++) {
                 q = pointsArray[i2];
-                double slopeToQ = p.slopeTo(q);
 
                 for (int i3 = i2 + 1; i3 < pointsArray.length - 1; i3++) {
                     r = pointsArray[i3];
-                    double slopeToR = p.slopeTo(r);
 
-                    if (Double.compare(slopeToQ, slopeToR) != 0) continue;
+                    if (p.compareSlopes(q, r) != 0) continue;
 
                     int maxPointIndex = 0;
                     for (int i4 = i3 + 1; i4 < pointsArray.length; i4++) {
 
                         s = pointsArray[i4];
-                        double slopeToS = p.slopeTo(s);
 
                         // saving the last collinear point
-                        if (Double.compare(slopeToQ, slopeToS) == 0) {
+                        if (p.compareSlopes(q, s) == 0) {
                             maxPointIndex = i4;
                         }
 
@@ -79,9 +76,7 @@ public class BruteCollinearPoints {
                             boolean isDuplicate = false;
                             for (LineSegmentInfo ls : lineSegments) {
 
-                                if (Double.compare(ls.getSlope(), slopeToQ) == 0
-                                        && (ls.getA().compareTo(p) == 0
-                                            || ls.getB().compareTo(pointsArray[maxPointIndex]) == 0)) {
+                                if (ls.contains(p, pointsArray[maxPointIndex])) {
                                     isDuplicate = true;
                                     break;
                                 }
@@ -98,16 +93,14 @@ public class BruteCollinearPoints {
     }
 
     /**
-     * LineSegment with information about its start, end and slope
+     * LineSegment with information about its start and end
      */
     private class LineSegmentInfo {
         private Point a, b;
-        private double slope;
 
         public LineSegmentInfo(Point a, Point b) {
             this.a = a;
             this.b = b;
-            this.slope = a.slopeTo(b);
         }
 
         public Point getA() {
@@ -118,8 +111,10 @@ public class BruteCollinearPoints {
             return this.b;
         }
 
-        public double getSlope() {
-            return this.slope;
+        // is the segment from p to q a part of this one? They share a point and the slope then
+        public boolean contains(Point p, Point q) {
+            return this.a.compareTo(p) == 0 && p.compareSlopes(this.b, q) == 0
+                    || this.b.compareTo(q) == 0 && q.compareSlopes(this.a, p) == 0;
         }
     }
 
@@ -47,6 +47,71 @@ public class FastCollinearPoints {
         pointsArray = points.clone();
         Arrays.sort(pointsArray);
 
+        if (!findBySlopeKeys()) {
+            findBySlopeOrder();
+        }
+    }
+
+    // finds the segments by sorting, for every anchor point, a long for each other point: its slope key
+    // in the high bits, the slope as a fixed-point number rounded down, with just enough fraction bits
+    // for the spread of the coordinates, and its index in the low bits; false if the two don't fit into a long
+    private boolean findBySlopeKeys() {
+        int n = pointsArray.length;
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        long minX = Long.MAX_VALUE, maxX = Long.MIN_VALUE, minY = Long.MAX_VALUE, maxY = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            xs[i] = pointsArray[i].x();
+            ys[i] = pointsArray[i].y();
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        // with the differences below 2^rangeBits the slopes are below 2^rangeBits too and unequal ones
+        // more than 2^-(2 * rangeBits) apart, so the keys take 3 * rangeBits bits and a sign
+        int rangeBits = 64 - Long.numberOfLeadingZeros(Math.max(maxX - minX, maxY - minY));
+        int indexBits = 32 - Integer.numberOfLeadingZeros(n - 1);
+        if (3 * rangeBits + 1 + indexBits > 63) return false;
+
+        int fractionBits = 2 * rangeBits;
+        long vertical = 1L << (3 * rangeBits);
+        long indexMask = (1L << indexBits) - 1;
+        long[] keys = new long[n - 1];
+
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == i) continue;
+
+                long dx = (long) xs[j] - xs[i];
+                long dy = (long) ys[j] - ys[i];
+                long key = dx == 0 ? vertical : Math.floorDiv(dy << fractionBits, dx);
+                keys[count++] = key << indexBits | j;
+            }
+            Arrays.sort(keys);
+
+            // the points of a slope come in their natural order, so a segment is added from its least point only,
+            // the anchor that comes before all of them
+            for (int start = 0, end; start < keys.length; start = end) {
+                long key = keys[start] >> indexBits;
+                end = start + 1;
+                while (end < keys.length && keys[end] >> indexBits == key) {
+                    end++;
+                }
+
+                if (end - start >= 3 && i < (keys[start] & indexMask)) {
+                    lineSegments.add(new LineSegmentInfo(pointsArray[i], pointsArray[(int) (keys[end - 1] & indexMask)]));
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // finds the segments by sorting the points by their slope to every anchor point in turn
+    private void findBySlopeOrder() {
         for (Point p: pointsArray) {
 
             Point[] sortedPoints = pointsArray.clone();
@@ -56,12 +121,9 @@ public class FastCollinearPoints {
             segment.add(p);
             segment.add(q);
 
-            double slopeQ = p.slopeTo(q);
             for (int i = 2; i < sortedPoints.length; i++) {
 
-                double slopeCurrent = p.slopeTo(sortedPoints[i]);
-
-                if (Double.compare(slopeQ, slopeCurrent) == 0) {
+                if (p.compareSlopes(q, sortedPoints[i]) == 0) {
                     segment.add(sortedPoints[i]);
                 }
                 else {
@@ -69,13 +131,11 @@ public class FastCollinearPoints {
 
                     q = sortedPoints[i];
                     segment = initNewSegment(p, q);
-                    slopeQ = slopeCurrent;
                 }
             }
 
             checkAddNewSegment(segment);
         }
-
     }
 
     private ArrayList<Point> initNewSegment(Point p, Point q) {
@@ -99,13 +159,10 @@ public class FastCollinearPoints {
         Point p = points[0];
         Point q = points[segment.size() - 1];
 
-        double slopeToQ = p.slopeTo(q);
         boolean isDuplicate = false;
         for (LineSegmentInfo ls : lineSegments) {
 
-            if (Double.compare(ls.getSlope(), slopeToQ) == 0
-                    && (ls.getA().compareTo(p) == 0
-                    || ls.getB().compareTo(q) == 0)) {
+            if (ls.contains(p, q)) {
                 isDuplicate = true;
                 break;
             }
@@ -117,16 +174,14 @@ public class FastCollinearPoints {
     }
 
     /**
-     * LineSegment with information about its start, end and slope
+     * LineSegment with information about its start and end
      */
     private class LineSegmentInfo {
         private Point a, b;
-        private double slope;
 
         public LineSegmentInfo(Point a, Point b) {
             this.a = a;
             this.b = b;
-            this.slope = a.slopeTo(b);
         }
 
         public Point getA() {
@@ -137,8 +192,10 @@ public class FastCollinearPoints {
             return this.b;
         }
 
-        public double getSlope() {
-            return this.slope;
+        // is the segment from p to q a part of this one? They share a point and the slope then
+        public boolean contains(Point p, Point q) {
+            return this.a.compareTo(p) == 0 && p.compareSlopes(this.b, q) == 0
+                    || this.b.compareTo(q) == 0 && q.compareSlopes(this.a, p) == 0;
         }
     }
 
@@ -8,6 +8,7 @@
  *
  ******************************************************************************/
 
+import java.math.BigInteger;
 import java.util.Comparator;
 import edu.princeton.cs.algs4.StdDraw;
 
@@ -28,6 +29,20 @@ public class Point implements Comparable<Point> {
         this.y = y;
     }
 
+    /**
+     * Returns the x-coordinate, for the point sets laid out as arrays of coordinates.
+     */
+    int x() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate, for the point sets laid out as arrays of coordinates.
+     */
+    int y() {
+        return y;
+    }
+
     /**
      * Draws this point to standard draw.
      */
@@ -71,6 +86,44 @@ public class Point implements Comparable<Point> {
         return (that.y - this.y) / (double) (that.x - this.x);
     }
 
+    /**
+     * Compares the slopes between this point and the two specified points,
+     * exactly for all the coordinates: by the cross products of the coordinate
+     * differences instead of the quotients. The slopes are defined as in
+     * the slopeTo() method.
+     *
+     * @param  a one point
+     * @param  b the other point
+     * @return a negative integer, zero, or a positive integer as the slope to
+     *         <tt>a</tt> is less than, equal to, or greater than the slope to <tt>b</tt>
+     */
+    public int compareSlopes(Point a, Point b) {
+        long dxA = (long) a.x - this.x, dyA = (long) a.y - this.y;
+        long dxB = (long) b.x - this.x, dyB = (long) b.y - this.y;
+
+        // this point itself first and the vertical segments last
+        int rankA = dxA != 0 ? 0 : dyA == 0 ? -1 : 1;
+        int rankB = dxB != 0 ? 0 : dyB == 0 ? -1 : 1;
+        if (rankA != 0 || rankB != 0) return Integer.compare(rankA, rankB);
+
+        // dyA / dxA < dyB / dxB if and only if dyA * dxB < dyB * dxA for positive dxA and dxB
+        if (dxA < 0) {
+            dxA = -dxA;
+            dyA = -dyA;
+        }
+        if (dxB < 0) {
+            dxB = -dxB;
+            dyB = -dyB;
+        }
+
+        // the differences take up to 33 bits, so only the products of the smaller ones fit into a long
+        if ((Math.abs(dyA) | dxA | Math.abs(dyB) | dxB) >> 31 == 0) {
+            return Long.compare(dyA * dxB, dyB * dxA);
+        }
+        return BigInteger.valueOf(dyA).multiply(BigInteger.valueOf(dxB))
+                .compareTo(BigInteger.valueOf(dyB).multiply(BigInteger.valueOf(dxA)));
+    }
+
     /**
      * Compares two points by y-coordinate, breaking ties by x-coordinate.
      * Formally, the invoking point (x0, y0) is less than the argument point
@@ -111,13 +164,7 @@ public class Point implements Comparable<Point> {
     private class SlopeComparator implements Comparator<Point> {
         @Override
         public int compare(Point a, Point b) {
-            double slopeA = slopeTo(a);
-            double slopeB = slopeTo(b);
-
-            if (slopeA < slopeB) return -1;
-            if (Double.compare(slopeA, slopeB) == 0) return 0;
-
-            return 1;
+            return compareSlopes(a, b);
         }
     }
 
@@ -150,6 +197,13 @@ public class Point implements Comparable<Point> {
         Comparator<Point> aComparator = a.slopeOrder();
         System.out.println("b compared to c via a: " + aComparator.compare(b, c));
 
+        // (2^31 - 1) / (2^31 - 2) and (2^31 - 2) / (2^31 - 3) are the same double
+        Point origin = new Point(0, 0);
+        Point d = new Point(Integer.MAX_VALUE - 1, Integer.MAX_VALUE);
+        Point e = new Point(Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1);
+        System.out.println("d compared to e via origin: " + origin.slopeOrder().compare(d, e)
+                + ", by slopeTo: " + Double.compare(origin.slopeTo(d), origin.slopeTo(e)));
+
         LineSegment aToB = new LineSegment(a, b);
         // aToB.draw();
         System.out.println("LineSegment a to b:" + aToB);